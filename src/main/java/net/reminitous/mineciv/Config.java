@@ -36,12 +36,27 @@ public class Config
             .comment("A list of items to log on common setup.")
             .defineListAllowEmpty("items", List.of("minecraft:iron_ingot"), Config::validateItemName);
 
+    private static final ForgeConfigSpec.BooleanValue ASYNC_CLAIM_SAVING = BUILDER
+            .comment("Whether chunk claim regions are encoded and written on a background thread during world saves")
+            .define("asyncClaimSaving", true);
+
+    private static final ForgeConfigSpec.DoubleValue AI_TICK_BUDGET_MS = BUILDER
+            .comment("Milliseconds per server tick MineCiv villager and knight goals may spend before they back off")
+            .defineInRange("aiTickBudgetMs", 2.0, 0.1, 50.0);
+
+    private static final ForgeConfigSpec.IntValue AI_LOD_DISTANCE = BUILDER
+            .comment("Villagers farther than this many blocks from every player do their work in coarse, low-detail steps")
+            .defineInRange("aiLodDistance", 64, 16, 512);
+
     static final ForgeConfigSpec SPEC = BUILDER.build();
 
     public static boolean logDirtBlock;
     public static int magicNumber;
     public static String magicNumberIntroduction;
     public static Set<Item> items;
+    public static boolean asyncClaimSaving = true;
+    public static double aiTickBudgetMs = 2.0;
+    public static int aiLodDistance = 64;
 
     private static boolean validateItemName(final Object obj)
     {
@@ -59,5 +74,9 @@ public class Config
         items = ITEM_STRINGS.get().stream()
                 .map(itemName -> ForgeRegistries.ITEMS.getValue(ResourceLocation.tryParse(itemName)))
                 .collect(Collectors.toSet());
+
+        asyncClaimSaving = ASYNC_CLAIM_SAVING.get();
+        aiTickBudgetMs = AI_TICK_BUDGET_MS.get();
+        aiLodDistance = AI_LOD_DISTANCE.get();
     }
 }
@@ -0,0 +1,97 @@
+package net.reminitous.mineciv.ai;
+
+import net.minecraft.world.entity.Entity;
+import net.reminitous.mineciv.Config;
+
+/**
+ * Server-wide time budget for MineCiv goal work.
+ * <p>
+ * Goals time their canUse/tick bodies with {@link #begin}/{@link #end}. Once the time spent this tick
+ * passes {@link Config#aiTickBudgetMs}, new scans are refused for the rest of the tick (goals keep
+ * working on the targets they already have). Each tick that ends over budget also doubles the
+ * degradation level, up to {@link #MAX_DEGRADATION}; goals multiply their cooldowns by it. After
+ * {@link #RECOVERY_TICKS} healthy ticks in a row the level halves again.
+ */
+public final class AiBudget {
+    public static final int MAX_DEGRADATION = 8;
+    private static final int RECOVERY_TICKS = 100;
+
+    // Every level reads the overworld's game time, so this is one window per server tick
+    private static long currentTick = Long.MIN_VALUE;
+    private static long spentNanos;
+
+    private static long lastTickNanos;
+    private static double averageTickNanos;
+    private static int degradation = 1;
+    private static int healthyTicks;
+    private static long overBudgetTicks;
+
+    private AiBudget() {
+    }
+
+    /** Starts timing a piece of goal work; pass the result to {@link #end}. */
+    public static long begin(Entity entity) {
+        roll(entity.level().getGameTime());
+        return System.nanoTime();
+    }
+
+    public static void end(long startedNanos) {
+        spentNanos += System.nanoTime() - startedNanos;
+    }
+
+    /** True once this tick's goal work has used up the budget. */
+    public static boolean isExhausted(Entity entity) {
+        roll(entity.level().getGameTime());
+        return spentNanos >= budgetNanos();
+    }
+
+    /** Current degradation level: 1 when healthy, up to {@link #MAX_DEGRADATION} under load. */
+    public static int degradation() {
+        return degradation;
+    }
+
+    public static int scaleCooldown(int ticks) {
+        return ticks * degradation;
+    }
+
+    // --------------------
+    // Metrics
+    // --------------------
+    public record Stats(double budgetMs, double lastTickMs, double averageTickMs, int degradation, long overBudgetTicks) {
+    }
+
+    public static Stats getStats() {
+        return new Stats(Config.aiTickBudgetMs, lastTickNanos / 1.0e6, averageTickNanos / 1.0e6, degradation, overBudgetTicks);
+    }
+
+    // --------------------
+    // Internals
+    // --------------------
+    private static long budgetNanos() {
+        return (long) (Config.aiTickBudgetMs * 1.0e6);
+    }
+
+    private static void roll(long gameTime) {
+        if (gameTime == currentTick) return;
+
+        if (currentTick != Long.MIN_VALUE) {
+            finishTick();
+        }
+        currentTick = gameTime;
+        spentNanos = 0;
+    }
+
+    private static void finishTick() {
+        lastTickNanos = spentNanos;
+        averageTickNanos = averageTickNanos * 0.95 + spentNanos * 0.05;
+
+        if (spentNanos > budgetNanos()) {
+            overBudgetTicks++;
+            healthyTicks = 0;
+            degradation = Math.min(MAX_DEGRADATION, degradation * 2);
+        } else if (degradation > 1 && ++healthyTicks >= RECOVERY_TICKS) {
+            healthyTicks = 0;
+            degradation /= 2;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package net.reminitous.mineciv.ai;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.npc.Villager;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.reminitous.mineciv.Config;
+
+import javax.annotation.Nullable;
+
+/**
+ * Level of detail for villager work.
+ * <p>
+ * Nobody sees a villager more than {@link Config#aiLodDistance} blocks from every player, so it
+ * doesn't need to walk or swing: its goals switch to a coarse mode that does a batch of work on a
+ * slow timer and credits the output straight to storage. It goes back to full simulation as soon as
+ * a player comes within range.
+ */
+public final class AiLod {
+
+    private AiLod() {
+    }
+
+    public static boolean isFar(Mob mob) {
+        return !mob.level().hasNearbyAlivePlayer(mob.getX(), mob.getY(), mob.getZ(), Config.aiLodDistance);
+    }
+
+    /**
+     * Puts work output where the villager would have carried it: the container at {@code container},
+     * then the villager's own inventory; anything left over is dropped at its feet.
+     */
+    public static void creditOutput(Villager villager, @Nullable BlockPos container, ItemStack stack) {
+        if (stack.isEmpty()) return;
+        Level level = villager.level();
+
+        if (container != null) {
+            BlockEntity be = level.getBlockEntity(container);
+            IItemHandler handler = be == null ? null : be.getCapability(ForgeCapabilities.ITEM_HANDLER, null).orElse(null);
+            if (handler != null) {
+                stack = ItemHandlerHelper.insertItemStacked(handler, stack, false);
+                be.setChanged();
+            }
+        }
+
+        if (!stack.isEmpty()) {
+            stack = villager.getInventory().addItem(stack);
+        }
+        if (!stack.isEmpty()) {
+            Block.popResource(level, villager.blockPosition(), stack);
+        }
+    }
+}
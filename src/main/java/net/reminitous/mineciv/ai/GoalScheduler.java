@@ -0,0 +1,77 @@
+package net.reminitous.mineciv.ai;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.world.entity.Entity;
+
+/**
+ * Spreads periodic goal work over ticks.
+ * <p>
+ * Goals start their timers at a per-entity phase offset, so villagers that load together don't all
+ * scan on the same tick. On top of that, expensive scans (block/entity searches, route planning) ask
+ * for one of a fixed number of scan slots per server tick; goals that don't get one retry on a later
+ * tick instead. Scans are also refused once {@link AiBudget} says this tick's time is used up.
+ */
+public final class GoalScheduler {
+    public static final int MAX_SCANS_PER_TICK = 8;
+
+    // Counted per server tick; every level reads the overworld's game time
+    private static long budgetTick = Long.MIN_VALUE;
+    private static int scansThisTick;
+
+    private static long granted;
+    private static long deferred;
+
+    private GoalScheduler() {
+    }
+
+    /** Stable offset in [0, period) for this entity, used as the first delay of a periodic timer. */
+    public static int phaseOffset(Entity entity, int period) {
+        if (period <= 1) return 0;
+        return Math.floorMod(HashCommon.mix(entity.getId()), period);
+    }
+
+    /**
+     * Takes a scan slot for the current tick.
+     *
+     * @return false if this tick's budget is spent; the caller should try again later
+     */
+    public static boolean tryStartScan(Entity entity) {
+        long now = entity.level().getGameTime();
+        if (now != budgetTick) {
+            budgetTick = now;
+            scansThisTick = 0;
+        }
+
+        // Over the time budget: keep working on current targets, start nothing new
+        if (scansThisTick >= MAX_SCANS_PER_TICK || AiBudget.isExhausted(entity)) {
+            deferred++;
+            return false;
+        }
+
+        scansThisTick++;
+        granted++;
+        return true;
+    }
+
+    /**
+     * How long to wait after being deferred: a tick or three, staggered so the queue drains evenly,
+     * and stretched while the AI budget is degraded.
+     */
+    public static int deferTicks(Entity entity) {
+        return AiBudget.scaleCooldown(1 + phaseOffset(entity, 3));
+    }
+
+    // --------------------
+    // Metrics
+    // --------------------
+    public record Stats(long granted, long deferred) {
+        public double deferralRate() {
+            long total = granted + deferred;
+            return total == 0 ? 0.0 : (double) deferred / total;
+        }
+    }
+
+    public static Stats getStats() {
+        return new Stats(granted, deferred);
+    }
+}
@@ -0,0 +1,207 @@
+package net.reminitous.mineciv.ai;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.ai.navigation.PathNavigation;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Front for PathNavigation#moveTo that drops requests which wouldn't change anything.
+ * <p>
+ * A request is skipped while the mob is still following a path to (about) the same target. A new
+ * target is never dropped, but while the mob is walking it is issued at most once per
+ * {@link #MIN_REPATH_INTERVAL_TICKS} (longer while {@link AiBudget} is degraded): a request that comes
+ * sooner is held and issued by {@link #tick} once the interval has passed, the latest one winning.
+ * Goals can therefore call this every tick without paying for a pathfind every tick, and can also
+ * path once per target without losing it.
+ * <p>
+ * The one request that is dropped is a repeat of a target the navigator just finished or gave up on
+ * within the interval; {@code moveTo} returns false then, so goals counting retries don't count it.
+ */
+public final class NavigationHelper {
+    // Targets closer than this to the current one are treated as the same target
+    private static final double RETARGET_DIST_SQR = 1.5 * 1.5;
+    private static final int MIN_REPATH_INTERVAL_TICKS = 10;
+
+    private static final Map<Mob, State> STATES = new WeakHashMap<>();
+    // Mobs holding a deferred request; usually empty, so most mob ticks stop at isEmpty()
+    private static final Map<Mob, State> PENDING = new WeakHashMap<>();
+
+    private static long issued;
+    private static long suppressed;
+
+    private static final class State {
+        long lastRequestTick = Long.MIN_VALUE;
+        double x;
+        double y;
+        double z;
+
+        // Deferred request, issued once the interval has passed
+        boolean pending;
+        double pendingX;
+        double pendingY;
+        double pendingZ;
+        double pendingSpeed;
+        @Nullable Entity pendingEntity;
+        // Path target when the request was deferred; if something else re-paths the mob meanwhile, it's dropped
+        @Nullable BlockPos deferredFrom;
+    }
+
+    // What became of a request
+    private enum Outcome { ISSUE, UNDER_WAY, DROPPED }
+
+    private NavigationHelper() {
+    }
+
+    /**
+     * Paths to {@code pos}. Returns false if the request was dropped as a repeat, true if a path was
+     * issued, deferred, or is already under way to it.
+     */
+    public static boolean moveTo(Mob mob, BlockPos pos, double speed) {
+        return moveTo(mob, pos.getX() + 0.5, pos.getY(), pos.getZ() + 0.5, speed);
+    }
+
+    public static boolean moveTo(Mob mob, double x, double y, double z, double speed) {
+        Outcome outcome = request(mob, x, y, z, speed, null);
+        if (outcome == Outcome.ISSUE) {
+            mob.getNavigation().moveTo(x, y, z, speed);
+        }
+        return outcome != Outcome.DROPPED;
+    }
+
+    /** Follows a moving entity; the path is refreshed once it has moved away from the old target. */
+    public static boolean moveTo(Mob mob, Entity target, double speed) {
+        Outcome outcome = request(mob, target.getX(), target.getY(), target.getZ(), speed, target);
+        if (outcome == Outcome.ISSUE) {
+            mob.getNavigation().moveTo(target, speed);
+        }
+        return outcome != Outcome.DROPPED;
+    }
+
+    /** Stops the mob and forgets any deferred request. Use instead of PathNavigation#stop. */
+    public static void stop(Mob mob) {
+        State state = PENDING.remove(mob);
+        if (state != null) clearPending(state);
+        mob.getNavigation().stop();
+    }
+
+    /** Issues a deferred request once its interval has passed. Called every mob tick. */
+    public static void tick(Mob mob) {
+        if (PENDING.isEmpty()) return;
+
+        State state = PENDING.get(mob);
+        if (state == null) return;
+
+        long now = mob.level().getGameTime();
+        if (now - state.lastRequestTick < AiBudget.scaleCooldown(MIN_REPATH_INTERVAL_TICKS)) return;
+
+        PENDING.remove(mob);
+        PathNavigation nav = mob.getNavigation();
+        Entity entity = state.pendingEntity;
+        boolean stillOurs = nav.isDone() || sameBlock(nav.getTargetPos(), state.deferredFrom);
+        boolean targetGone = entity != null && (entity.isRemoved() || entity.level() != mob.level());
+        if (stillOurs && !targetGone) {
+            remember(state, now, state.pendingX, state.pendingY, state.pendingZ);
+            issued++;
+            if (entity != null) {
+                nav.moveTo(entity, state.pendingSpeed);
+            } else {
+                nav.moveTo(state.pendingX, state.pendingY, state.pendingZ, state.pendingSpeed);
+            }
+        }
+        clearPending(state);
+    }
+
+    // --------------------
+    // Metrics
+    // --------------------
+    public record Stats(long issued, long suppressed) {
+        public double suppressionRate() {
+            long total = issued + suppressed;
+            return total == 0 ? 0.0 : (double) suppressed / total;
+        }
+    }
+
+    public static Stats getStats() {
+        return new Stats(issued, suppressed);
+    }
+
+    // --------------------
+    // Internals
+    // --------------------
+    private static Outcome request(Mob mob, double x, double y, double z, double speed, @Nullable Entity entity) {
+        PathNavigation nav = mob.getNavigation();
+        State state = STATES.computeIfAbsent(mob, m -> new State());
+
+        long now = mob.level().getGameTime();
+        boolean recent = now - state.lastRequestTick < AiBudget.scaleCooldown(MIN_REPATH_INTERVAL_TICKS);
+
+        if (!nav.isDone()) {
+            BlockPos current = nav.getTargetPos();
+            boolean sameTarget = current != null && current.distToCenterSqr(x, y, z) <= RETARGET_DIST_SQR;
+            if (sameTarget) {
+                // Already on the way there: keep the current path, and drop an older deferred target
+                dropPending(mob, state);
+                nav.setSpeedModifier(speed);
+                suppressed++;
+                return Outcome.UNDER_WAY;
+            }
+            if (recent) {
+                // New target, but we re-pathed a moment ago: tick() issues it once the interval is up
+                state.pending = true;
+                state.pendingX = x;
+                state.pendingY = y;
+                state.pendingZ = z;
+                state.pendingSpeed = speed;
+                state.pendingEntity = entity;
+                state.deferredFrom = current;
+                PENDING.put(mob, state);
+                suppressed++;
+                return Outcome.UNDER_WAY;
+            }
+        } else if (recent && distSqr(state, x, y, z) <= RETARGET_DIST_SQR) {
+            // Just asked for this and the navigator gave up or arrived; asking again won't help yet
+            suppressed++;
+            return Outcome.DROPPED;
+        }
+
+        dropPending(mob, state);
+        remember(state, now, x, y, z);
+        issued++;
+        return Outcome.ISSUE;
+    }
+
+    private static void remember(State state, long now, double x, double y, double z) {
+        state.lastRequestTick = now;
+        state.x = x;
+        state.y = y;
+        state.z = z;
+    }
+
+    private static void dropPending(Mob mob, State state) {
+        if (!state.pending) return;
+        PENDING.remove(mob);
+        clearPending(state);
+    }
+
+    private static void clearPending(State state) {
+        state.pending = false;
+        state.pendingEntity = null;
+        state.deferredFrom = null;
+    }
+
+    private static boolean sameBlock(@Nullable BlockPos a, @Nullable BlockPos b) {
+        return a != null && a.equals(b);
+    }
+
+    private static double distSqr(State state, double x, double y, double z) {
+        double dx = state.x - x;
+        double dy = state.y - y;
+        double dz = state.z - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
@@ -0,0 +1,158 @@
+package net.reminitous.mineciv.ai;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+
+import javax.annotation.Nullable;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Per-level table of short work leases so that workers don't all walk to the same target.
+ * <p>
+ * A worker reserves a position (a crop, a tree's logs, a chest) before pathing to it and releases it
+ * when done. Leases expire on their own, so a worker that dies or gets distracted never blocks a
+ * target for long. Other workers skip positions that someone else holds.
+ */
+public class WorkReservations {
+    public enum Kind { CROP, TREE, CHEST }
+
+    private static final Map<Level, WorkReservations> TABLES = new IdentityHashMap<>();
+
+    private static final int PURGE_INTERVAL_TICKS = 200;
+
+    // Counters across all levels, for /mineciv diagnostics
+    private static long granted;
+    private static long renewed;
+    private static long contended;
+    private static long expired;
+    private static long released;
+
+    private record Lease(int holder, long expiresAt) {
+        boolean isLive(long now) {
+            return expiresAt > now;
+        }
+    }
+
+    // kind -> BlockPos#asLong -> lease
+    private final Map<Kind, Long2ObjectOpenHashMap<Lease>> leases = new EnumMap<>(Kind.class);
+    private long lastPurge;
+
+    private WorkReservations() {
+        for (Kind kind : Kind.values()) {
+            leases.put(kind, new Long2ObjectOpenHashMap<>());
+        }
+    }
+
+    @Nullable
+    private static WorkReservations of(@Nullable Level level, boolean create) {
+        if (!(level instanceof ServerLevel)) return null;
+        return create ? TABLES.computeIfAbsent(level, l -> new WorkReservations()) : TABLES.get(level);
+    }
+
+    public static void onLevelUnload(Level level) {
+        TABLES.remove(level);
+    }
+
+    // --------------------
+    // Leases
+    // --------------------
+
+    /**
+     * Reserves {@code pos} for {@code holder} for the next {@code ticks} ticks, or extends the lease the
+     * holder already has.
+     *
+     * @return false if another worker holds a live lease on it
+     */
+    public static boolean tryReserve(Entity holder, Kind kind, long pos, int ticks) {
+        Level level = holder.level();
+        WorkReservations table = of(level, true);
+        if (table == null) return true;
+
+        long now = level.getGameTime();
+        table.purgeIfDue(now);
+
+        Long2ObjectOpenHashMap<Lease> map = table.leases.get(kind);
+        Lease lease = map.get(pos);
+
+        if (lease != null) {
+            if (lease.isLive(now)) {
+                if (lease.holder() != holder.getId()) {
+                    contended++;
+                    return false;
+                }
+                renewed++;
+            } else {
+                expired++;
+                granted++;
+            }
+        } else {
+            granted++;
+        }
+
+        map.put(pos, new Lease(holder.getId(), now + ticks));
+        return true;
+    }
+
+    public static void release(Entity holder, Kind kind, long pos) {
+        WorkReservations table = of(holder.level(), false);
+        if (table == null) return;
+
+        Long2ObjectOpenHashMap<Lease> map = table.leases.get(kind);
+        Lease lease = map.get(pos);
+        if (lease != null && lease.holder() == holder.getId()) {
+            map.remove(pos);
+            released++;
+        }
+    }
+
+    /** True if someone other than {@code self} holds a live lease on {@code pos}. */
+    public static boolean isReservedByOther(Entity self, Kind kind, long pos) {
+        Level level = self.level();
+        WorkReservations table = of(level, false);
+        if (table == null) return false;
+
+        Lease lease = table.leases.get(kind).get(pos);
+        return lease != null && lease.holder() != self.getId() && lease.isLive(level.getGameTime());
+    }
+
+    // --------------------
+    // Metrics
+    // --------------------
+    public record Stats(long granted, long renewed, long contended, long expired, long released, int active) {
+        /** Share of reservation attempts that found the target already taken. */
+        public double contentionRate() {
+            long attempts = granted + renewed + contended;
+            return attempts == 0 ? 0.0 : (double) contended / attempts;
+        }
+    }
+
+    public static Stats getStats() {
+        int active = 0;
+        for (WorkReservations table : TABLES.values()) {
+            for (Long2ObjectOpenHashMap<Lease> map : table.leases.values()) {
+                active += map.size();
+            }
+        }
+        return new Stats(granted, renewed, contended, expired, released, active);
+    }
+
+    // --------------------
+    // Internals
+    // --------------------
+    private void purgeIfDue(long now) {
+        if (now - lastPurge < PURGE_INTERVAL_TICKS) return;
+        lastPurge = now;
+
+        for (Long2ObjectOpenHashMap<Lease> map : leases.values()) {
+            map.values().removeIf(lease -> {
+                if (lease.isLive(now)) return false;
+                expired++;
+                return true;
+            });
+        }
+    }
+}
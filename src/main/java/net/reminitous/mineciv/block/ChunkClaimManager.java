@@ -6,22 +6,71 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.dimension.DimensionType;
 import net.minecraft.world.level.saveddata.SavedData;
 import net.minecraft.world.level.storage.DimensionDataStorage;
+import net.minecraft.world.level.storage.LevelResource;
 import net.minecraft.nbt.NbtUtils;
-
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.reminitous.mineciv.Config;
+import net.reminitous.mineciv.MineCiv;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.*;
 
 public class ChunkClaimManager extends SavedData {
     private static final String DATA_NAME = "mineciv_chunk_claims";
+    private static final String REGION_DIR_NAME = "mineciv_claims";
+    private static final int FORMAT_REGIONS = 1;
+
+    // Managers resolved on level load, so hot paths (block events, menu stillValid, knights)
+    // don't go through DimensionDataStorage#computeIfAbsent on every call.
+    // Only touched from the server thread.
+    private static final Map<ServerLevel, ChunkClaimManager> LOADED = new IdentityHashMap<>();
+    private static ServerLevel lastLevel;
+    private static ChunkClaimManager lastManager;
 
-    // Map of chunk coordinates to claim data: "chunkX,chunkZ" -> ClaimData
-    private final Map<String, ClaimData> claims = new HashMap<>();
+    // Map of packed chunk coordinates (ChunkPos#asLong) to claim data.
+    // Open-addressing primitive map: lookups by long don't box or allocate.
+    private final Long2ObjectOpenHashMap<ClaimData> claims = new Long2ObjectOpenHashMap<>();
 
     // Map of player UUID to the chunk owner they have access to
     private final Map<UUID, UUID> playerAccessMap = new HashMap<>();
 
+    // Secondary index: owner UUID -> packed keys of every chunk they claim.
+    // Rebuilt on load and kept in sync by claim/unclaim, so per-owner questions never scan all claims.
+    private final Map<UUID, LongOpenHashSet> claimsByOwner = new HashMap<>();
+
+    // Grid over claimed chunks for nearest / radius / box queries
+    private final ClaimSpatialIndex spatialIndex = new ClaimSpatialIndex();
+
+    // Region files backing the claims; attached once the owning level is known
+    private ClaimRegionStorage storage;
+    // Claims were read from a pre-region save and still need to be written out as regions
+    private boolean hasLegacyClaims;
+
+    // Per-tick cache of canPlayerEdit results, keyed on (chunk, player).
+    // Explosions/pistons/big builds fire hundreds of place/break events per tick for the
+    // same few chunks and players; this direct-mapped table answers repeats without a claim lookup.
+    // Entries are only valid for the game tick they were written in and are wiped on any claim change.
+    private static final int EDIT_CACHE_SIZE = 64; // must be a power of two
+    private final long[] editCacheChunk = new long[EDIT_CACHE_SIZE];
+    private final long[] editCachePlayerMost = new long[EDIT_CACHE_SIZE];
+    private final long[] editCachePlayerLeast = new long[EDIT_CACHE_SIZE];
+    private final long[] editCacheTick = new long[EDIT_CACHE_SIZE];
+    private final boolean[] editCacheResult = new boolean[EDIT_CACHE_SIZE];
+    private long editCacheHits;
+    private long editCacheMisses;
+
     public static class ClaimData {
         public UUID ownerUUID;
         public BlockPos monumentPos;
@@ -32,19 +81,60 @@ public class ChunkClaimManager extends SavedData {
             this.monumentPos = monumentPos;
             this.allowedPlayers = new HashSet<>();
         }
+
+        // Detached copy for saving off the server thread
+        ClaimData copy() {
+            ClaimData copy = new ClaimData(ownerUUID, monumentPos.immutable());
+            copy.allowedPlayers.addAll(allowedPlayers);
+            return copy;
+        }
+    }
+
+    public record EditCacheStats(long hits, long misses) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
     }
 
     public ChunkClaimManager() {
         super();
+        Arrays.fill(editCacheTick, Long.MIN_VALUE);
     }
 
     public static ChunkClaimManager load(CompoundTag tag, HolderLookup.Provider provider) {
         ChunkClaimManager manager = new ChunkClaimManager();
-        ListTag claimsList = tag.getList("claims", Tag.TAG_COMPOUND);
 
+        // Legacy single-blob save: every claim lived in this tag.
+        // They get moved into region files as soon as the level attaches its storage.
+        if (tag.contains("claims", Tag.TAG_LIST)) {
+            readClaims(tag.getList("claims", Tag.TAG_COMPOUND), manager.claims);
+            manager.hasLegacyClaims = !manager.claims.isEmpty();
+        }
+
+        return manager;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider provider) {
+        // Claims live in region files (see ClaimRegionStorage) and the player access map
+        // is rebuilt from them on load, so this blob only records the storage format.
+        tag.putInt("format", FORMAT_REGIONS);
+        return tag;
+    }
+
+    // Pre-compact claim layout: one compound per claim (legacy blob and version 1 region files)
+    static void readClaims(ListTag claimsList, Long2ObjectMap<ClaimData> into) {
         for (int i = 0; i < claimsList.size(); i++) {
             CompoundTag claimTag = claimsList.getCompound(i);
-            String key = claimTag.getString("key");
+            // NBT keeps the legacy "chunkX,chunkZ" string key so existing saves stay compatible
+            long key;
+            try {
+                key = parseKey(claimTag.getString("key"));
+            } catch (IllegalArgumentException e) {
+                MineCiv.LOGGER.warn("Skipping chunk claim with malformed key '{}'", claimTag.getString("key"));
+                continue;
+            }
             UUID ownerUUID = claimTag.getUUID("owner");
             BlockPos monumentPos = new BlockPos(
                     claimTag.getInt("monumentX"),
@@ -54,64 +144,175 @@ public class ChunkClaimManager extends SavedData {
 
             ClaimData claimData = new ClaimData(ownerUUID, monumentPos);
 
-            // Load allowed players
-            ListTag allowedPlayersList = claimTag.getList("allowedPlayers", Tag.TAG_COMPOUND);
+            // Load allowed players (NbtUtils#createUUID writes int arrays)
+            ListTag allowedPlayersList = claimTag.getList("allowedPlayers", Tag.TAG_INT_ARRAY);
             for (int j = 0; j < allowedPlayersList.size(); j++) {
                 UUID playerUUID = NbtUtils.loadUUID(allowedPlayersList.get(j));
                 claimData.allowedPlayers.add(playerUUID);
             }
 
-            manager.claims.put(key, claimData);
+            into.put(key, claimData);
         }
+    }
+
+    private void attachStorage(ServerLevel level) {
+        if (storage != null) return;
 
-        // Load player access map
-        ListTag accessMapList = tag.getList("playerAccessMap", Tag.TAG_COMPOUND);
-        for (int i = 0; i < accessMapList.size(); i++) {
-            CompoundTag accessTag = accessMapList.getCompound(i);
-            UUID playerUUID = accessTag.getUUID("player");
-            UUID ownerUUID = accessTag.getUUID("owner");
-            manager.playerAccessMap.put(playerUUID, ownerUUID);
+        Path dimensionRoot = DimensionType.getStorageFolder(level.dimension(), level.getServer().getWorldPath(LevelResource.ROOT));
+        storage = new ClaimRegionStorage(dimensionRoot.resolve("data").resolve(REGION_DIR_NAME));
+
+        // Region files are loaded after legacy entries: after an interrupted migration they're the newer copy
+        long loadStart = System.nanoTime();
+        storage.loadAll(claims);
+        MineCiv.LOGGER.debug("Loaded {} chunk claims for {} in {} ms", claims.size(), level.dimension().location(),
+                (System.nanoTime() - loadStart) / 1_000_000L);
+        for (long key : claims.keySet()) {
+            storage.track(key);
         }
 
-        return manager;
-    }
+        if (hasLegacyClaims) {
+            MineCiv.LOGGER.info("Migrating {} chunk claims in {} to region files", claims.size(), level.dimension().location());
 
-    @Override
-    public CompoundTag save(CompoundTag tag, HolderLookup.Provider provider) {
-        ListTag claimsList = new ListTag();
+            // Write the regions right away, before the blob can be saved without its claim list
+            storage.markAllDirty();
+            storage.saveDirty(claims, false);
+            hasLegacyClaims = false;
+            setDirty();
+        }
 
-        for (Map.Entry<String, ClaimData> entry : claims.entrySet()) {
-            CompoundTag claimTag = new CompoundTag();
-            claimTag.putString("key", entry.getKey());
-            claimTag.putUUID("owner", entry.getValue().ownerUUID);
-            claimTag.putInt("monumentX", entry.getValue().monumentPos.getX());
-            claimTag.putInt("monumentY", entry.getValue().monumentPos.getY());
-            claimTag.putInt("monumentZ", entry.getValue().monumentPos.getZ());
+        rebuildIndexes();
+    }
 
-            // Save allowed players
-            ListTag allowedPlayersList = new ListTag();
-            for (UUID playerUUID : entry.getValue().allowedPlayers) {
-                allowedPlayersList.add(NbtUtils.createUUID(playerUUID));
+    // Derived state that isn't persisted: the player access map, owner and spatial indexes
+    private void rebuildIndexes() {
+        playerAccessMap.clear();
+        claimsByOwner.clear();
+        spatialIndex.clear();
 
+        for (Long2ObjectMap.Entry<ClaimData> entry : claims.long2ObjectEntrySet()) {
+            ClaimData claim = entry.getValue();
+            indexOwner(claim.ownerUUID, entry.getLongKey());
+            spatialIndex.add(entry.getLongKey());
+            for (UUID playerUUID : claim.allowedPlayers) {
+                playerAccessMap.put(playerUUID, claim.ownerUUID);
             }
-            claimTag.put("allowedPlayers", allowedPlayersList);
+        }
+    }
+
+    private void indexOwner(UUID ownerUUID, long key) {
+        claimsByOwner.computeIfAbsent(ownerUUID, k -> new LongOpenHashSet()).add(key);
+    }
 
-            claimsList.add(claimTag);
+    private void unindexOwner(UUID ownerUUID, long key) {
+        LongOpenHashSet owned = claimsByOwner.get(ownerUUID);
+        if (owned != null && owned.remove(key) && owned.isEmpty()) {
+            claimsByOwner.remove(ownerUUID);
         }
+    }
 
-        tag.put("claims", claimsList);
+    // Whether any remaining claim of this owner still lists the player. Costs O(owner's claims).
+    private boolean stillAllowedByOwner(UUID ownerUUID, UUID playerUUID) {
+        LongOpenHashSet owned = claimsByOwner.get(ownerUUID);
+        if (owned == null) return false;
 
-        // Save player access map
-        ListTag accessMapList = new ListTag();
-        for (Map.Entry<UUID, UUID> entry : playerAccessMap.entrySet()) {
-            CompoundTag accessTag = new CompoundTag();
-            accessTag.putUUID("player", entry.getKey());
-            accessTag.putUUID("owner", entry.getValue());
-            accessMapList.add(accessTag);
+        LongIterator it = owned.iterator();
+        while (it.hasNext()) {
+            ClaimData claim = claims.get(it.nextLong());
+            if (claim != null && claim.allowedPlayers.contains(playerUUID)) return true;
         }
-        tag.put("playerAccessMap", accessMapList);
+        return false;
+    }
 
-        return tag;
+    // Drops a player's access-map entry once no claim of the owner lists them anymore
+    private void releaseAccessIfUnused(UUID ownerUUID, UUID playerUUID) {
+        if (!stillAllowedByOwner(ownerUUID, playerUUID)) {
+            playerAccessMap.remove(playerUUID, ownerUUID);
+        }
+    }
+
+    // Marks the claim's region for the next save and drops cached permissions
+    private void markClaimChanged(long key) {
+        invalidateEditCache();
+        storage.markDirty(key);
+    }
+
+    private boolean canEdit(long key, UUID playerUUID, long gameTime) {
+        int slot = (int) HashCommon.mix(key ^ playerUUID.getMostSignificantBits() ^ playerUUID.getLeastSignificantBits())
+                & (EDIT_CACHE_SIZE - 1);
+
+        if (editCacheTick[slot] == gameTime
+                && editCacheChunk[slot] == key
+                && editCachePlayerMost[slot] == playerUUID.getMostSignificantBits()
+                && editCachePlayerLeast[slot] == playerUUID.getLeastSignificantBits()) {
+            editCacheHits++;
+            return editCacheResult[slot];
+        }
+
+        editCacheMisses++;
+        boolean result = resolveCanEdit(claims.get(key), playerUUID);
+
+        editCacheTick[slot] = gameTime;
+        editCacheChunk[slot] = key;
+        editCachePlayerMost[slot] = playerUUID.getMostSignificantBits();
+        editCachePlayerLeast[slot] = playerUUID.getLeastSignificantBits();
+        editCacheResult[slot] = result;
+        return result;
+    }
+
+    private static boolean resolveCanEdit(ClaimData claim, UUID playerUUID) {
+        if (claim == null) {
+            return true; // Unclaimed chunks can be edited by anyone
+        }
+
+        // Owner can always edit
+        if (claim.ownerUUID.equals(playerUUID)) {
+            return true;
+        }
+
+        // Check if player is allowed
+        return claim.allowedPlayers.contains(playerUUID);
+    }
+
+    // Called on every claim/access change so cached permissions never outlive the data they came from
+    private void invalidateEditCache() {
+        Arrays.fill(editCacheTick, Long.MIN_VALUE);
+    }
+
+    private static long parseKey(String key) {
+        int comma = key.indexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException(key);
+        }
+        try {
+            int chunkX = Integer.parseInt(key.substring(0, comma).trim());
+            int chunkZ = Integer.parseInt(key.substring(comma + 1).trim());
+            return ChunkPos.asLong(chunkX, chunkZ);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key, e);
+        }
+    }
+
+    public static void onLevelLoad(ServerLevel level) {
+        LOADED.put(level, resolve(level));
+    }
+
+    public static void onLevelSave(ServerLevel level) {
+        ChunkClaimManager manager = LOADED.get(level);
+        if (manager != null && manager.storage != null) {
+            manager.storage.saveDirty(manager.claims, Config.asyncClaimSaving);
+        }
+    }
+
+    public static void onLevelUnload(ServerLevel level) {
+        ChunkClaimManager manager = LOADED.remove(level);
+        if (manager != null && manager.storage != null) {
+            // Unload runs after the final save on shutdown; don't let the writer thread get cut off
+            manager.storage.awaitPendingWrites();
+        }
+        if (lastLevel == level) {
+            lastLevel = null;
+            lastManager = null;
+        }
     }
 
     private static ChunkClaimManager get(LevelAccessor level) {
@@ -119,8 +320,26 @@ public class ChunkClaimManager extends SavedData {
             throw new IllegalStateException("Cannot access ChunkClaimManager on client side!");
         }
 
+        // Fast path: almost every call in a tick targets the same dimension
+        if (serverLevel == lastLevel) {
+            return lastManager;
+        }
+
+        ChunkClaimManager manager = LOADED.get(serverLevel);
+        if (manager == null) {
+            // Accessed before LevelEvent.Load reached us; resolve once and keep it
+            manager = resolve(serverLevel);
+            LOADED.put(serverLevel, manager);
+        }
+
+        lastLevel = serverLevel;
+        lastManager = manager;
+        return manager;
+    }
+
+    private static ChunkClaimManager resolve(ServerLevel serverLevel) {
         DimensionDataStorage storage = serverLevel.getDataStorage();
-        return storage.computeIfAbsent(
+        ChunkClaimManager manager = storage.computeIfAbsent(
                 new SavedData.Factory<>(
                         ChunkClaimManager::new,
                         ChunkClaimManager::load,
@@ -128,40 +347,49 @@ public class ChunkClaimManager extends SavedData {
                 ),
                 DATA_NAME
         );
+        manager.attachStorage(serverLevel);
+        return manager;
     }
 
     public static boolean claimChunk(LevelAccessor level, int chunkX, int chunkZ, UUID ownerUUID, BlockPos monumentPos) {
         ChunkClaimManager manager = get(level);
-        String key = chunkX + "," + chunkZ;
+        long key = ChunkPos.asLong(chunkX, chunkZ);
 
         if (manager.claims.containsKey(key)) {
             return false; // Already claimed
         }
 
         manager.claims.put(key, new ClaimData(ownerUUID, monumentPos));
-        manager.setDirty();
+        manager.indexOwner(ownerUUID, key);
+        manager.spatialIndex.add(key);
+        manager.storage.track(key);
+        manager.markClaimChanged(key);
         return true;
     }
 
     public static void unclaimChunk(LevelAccessor level, int chunkX, int chunkZ, BlockPos monumentPos) {
         ChunkClaimManager manager = get(level);
-        String key = chunkX + "," + chunkZ;
+        long key = ChunkPos.asLong(chunkX, chunkZ);
 
         ClaimData claim = manager.claims.get(key);
         if (claim != null && claim.monumentPos.equals(monumentPos)) {
-            // Remove all players' access to this chunk
+            manager.claims.remove(key);
+            manager.unindexOwner(claim.ownerUUID, key);
+            manager.spatialIndex.remove(key);
+            manager.storage.untrack(key);
+
+            // Remove players' access unless another chunk of the same owner still grants it
             for (UUID playerUUID : claim.allowedPlayers) {
-                manager.playerAccessMap.remove(playerUUID);
+                manager.releaseAccessIfUnused(claim.ownerUUID, playerUUID);
             }
 
-            manager.claims.remove(key);
-            manager.setDirty();
+            manager.markClaimChanged(key);
         }
     }
 
     public static ClaimData getClaim(LevelAccessor level, int chunkX, int chunkZ) {
         ChunkClaimManager manager = get(level);
-        return manager.claims.get(chunkX + "," + chunkZ);
+        return manager.claims.get(ChunkPos.asLong(chunkX, chunkZ));
     }
 
     public static boolean isChunkClaimed(LevelAccessor level, int chunkX, int chunkZ) {
@@ -169,18 +397,14 @@ public class ChunkClaimManager extends SavedData {
     }
 
     public static boolean canPlayerEdit(LevelAccessor level, int chunkX, int chunkZ, UUID playerUUID) {
-        ClaimData claim = getClaim(level, chunkX, chunkZ);
-        if (claim == null) {
-            return true; // Unclaimed chunks can be edited by anyone
-        }
-
-        // Owner can always edit
-        if (claim.ownerUUID.equals(playerUUID)) {
-            return true;
-        }
+        ChunkClaimManager manager = get(level);
+        long gameTime = ((ServerLevel) level).getGameTime();
+        return manager.canEdit(ChunkPos.asLong(chunkX, chunkZ), playerUUID, gameTime);
+    }
 
-        // Check if player is allowed
-        return claim.allowedPlayers.contains(playerUUID);
+    public static EditCacheStats getEditCacheStats(LevelAccessor level) {
+        ChunkClaimManager manager = get(level);
+        return new EditCacheStats(manager.editCacheHits, manager.editCacheMisses);
     }
 
     public static boolean addPlayerAccess(LevelAccessor level, int chunkX, int chunkZ, UUID playerUUID) {
@@ -204,7 +428,7 @@ public class ChunkClaimManager extends SavedData {
 
         claim.allowedPlayers.add(playerUUID);
         manager.playerAccessMap.put(playerUUID, claim.ownerUUID);
-        manager.setDirty();
+        manager.markClaimChanged(ChunkPos.asLong(chunkX, chunkZ));
         return true;
     }
 
@@ -218,8 +442,8 @@ public class ChunkClaimManager extends SavedData {
 
         boolean removed = claim.allowedPlayers.remove(playerUUID);
         if (removed) {
-            manager.playerAccessMap.remove(playerUUID);
-            manager.setDirty();
+            manager.releaseAccessIfUnused(claim.ownerUUID, playerUUID);
+            manager.markClaimChanged(ChunkPos.asLong(chunkX, chunkZ));
         }
         return removed;
     }
@@ -231,4 +455,56 @@ public class ChunkClaimManager extends SavedData {
         }
         return new HashSet<>(claim.allowedPlayers);
     }
-}
\ No newline at end of file
+
+    // --------------------
+    // Owner queries (cost scales with the owner's claim count, not the world's)
+    // --------------------
+    public static LongSet getClaimedChunks(LevelAccessor level, UUID ownerUUID) {
+        LongOpenHashSet owned = get(level).claimsByOwner.get(ownerUUID);
+        return owned == null ? new LongOpenHashSet() : new LongOpenHashSet(owned);
+    }
+
+    public static int getClaimCount(LevelAccessor level, UUID ownerUUID) {
+        LongOpenHashSet owned = get(level).claimsByOwner.get(ownerUUID);
+        return owned == null ? 0 : owned.size();
+    }
+
+    public static List<BlockPos> getMonuments(LevelAccessor level, UUID ownerUUID) {
+        ChunkClaimManager manager = get(level);
+        LongOpenHashSet owned = manager.claimsByOwner.get(ownerUUID);
+        if (owned == null) {
+            return new ArrayList<>();
+        }
+
+        List<BlockPos> monuments = new ArrayList<>(owned.size());
+        LongIterator it = owned.iterator();
+        while (it.hasNext()) {
+            ClaimData claim = manager.claims.get(it.nextLong());
+            if (claim != null) {
+                monuments.add(claim.monumentPos);
+            }
+        }
+        return monuments;
+    }
+
+    public static Set<UUID> getOwners(LevelAccessor level) {
+        return new HashSet<>(get(level).claimsByOwner.keySet());
+    }
+
+    // --------------------
+    // Spatial queries (chunk coordinates; results are ChunkPos#asLong keys)
+    // --------------------
+    public static LongList getClaimsInBox(LevelAccessor level, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        return get(level).spatialIndex.inBox(minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+    }
+
+    public static LongList getClaimsInRadius(LevelAccessor level, int chunkX, int chunkZ, int radiusChunks) {
+        return get(level).spatialIndex.inRadius(chunkX, chunkZ, radiusChunks);
+    }
+
+    @Nullable
+    public static ChunkPos findNearestClaim(LevelAccessor level, int chunkX, int chunkZ, int maxRadiusChunks) {
+        long key = get(level).spatialIndex.nearest(chunkX, chunkZ, maxRadiusChunks);
+        return key == ClaimSpatialIndex.NONE ? null : new ChunkPos(key);
+    }
+}
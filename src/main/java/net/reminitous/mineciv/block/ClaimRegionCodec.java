@@ -0,0 +1,129 @@
+package net.reminitous.mineciv.block;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Versioned encoding of one claim region file.
+ * <p>
+ * Version 2 (compact) stores every claim field as a column in a primitive array tag, so no
+ * field names or per-claim compounds are repeated:
+ * <ul>
+ *     <li>{@code uuids}: owner and allowed-player UUIDs interned into one table, two longs per entry</li>
+ *     <li>{@code chunks}: sorted ChunkPos#asLong keys, each stored as the delta to the previous one</li>
+ *     <li>{@code owners}: per claim, the owner's index in the UUID table</li>
+ *     <li>{@code monuments}: per claim, BlockPos#asLong of the monument</li>
+ *     <li>{@code allowed}: per claim, a count followed by that many UUID table indices</li>
+ * </ul>
+ * Version 1 regions (a "claims" list of per-claim compounds) are still read.
+ */
+final class ClaimRegionCodec {
+    static final int VERSION_COMPACT = 2;
+
+    private ClaimRegionCodec() {
+    }
+
+    static CompoundTag encode(Long2ObjectMap<ChunkClaimManager.ClaimData> claims) {
+        long[] keys = claims.keySet().toLongArray();
+        Arrays.sort(keys);
+
+        Object2IntOpenHashMap<UUID> uuidIndex = new Object2IntOpenHashMap<>();
+        uuidIndex.defaultReturnValue(-1);
+        LongArrayList uuids = new LongArrayList();
+
+        long[] chunkDeltas = new long[keys.length];
+        int[] owners = new int[keys.length];
+        long[] monuments = new long[keys.length];
+        IntArrayList allowed = new IntArrayList(keys.length);
+
+        long previous = 0L;
+        for (int i = 0; i < keys.length; i++) {
+            ChunkClaimManager.ClaimData claim = claims.get(keys[i]);
+
+            chunkDeltas[i] = keys[i] - previous;
+            previous = keys[i];
+
+            owners[i] = intern(claim.ownerUUID, uuidIndex, uuids);
+            monuments[i] = claim.monumentPos.asLong();
+
+            allowed.add(claim.allowedPlayers.size());
+            for (UUID playerUUID : claim.allowedPlayers) {
+                allowed.add(intern(playerUUID, uuidIndex, uuids));
+            }
+        }
+
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("version", VERSION_COMPACT);
+        tag.putLongArray("uuids", uuids.toLongArray());
+        tag.putLongArray("chunks", chunkDeltas);
+        tag.putIntArray("owners", owners);
+        tag.putLongArray("monuments", monuments);
+        tag.putIntArray("allowed", allowed.toIntArray());
+        return tag;
+    }
+
+    static void decode(CompoundTag tag, Long2ObjectMap<ChunkClaimManager.ClaimData> into) throws IOException {
+        int version = tag.getInt("version");
+        if (version < VERSION_COMPACT) {
+            // Version 1: one compound per claim
+            ChunkClaimManager.readClaims(tag.getList("claims", Tag.TAG_COMPOUND), into);
+            return;
+        }
+        if (version > VERSION_COMPACT) {
+            throw new IOException("Unsupported claim region version " + version);
+        }
+
+        long[] uuidBits = tag.getLongArray("uuids");
+        UUID[] uuids = new UUID[uuidBits.length / 2];
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = new UUID(uuidBits[i * 2], uuidBits[i * 2 + 1]);
+        }
+
+        long[] chunkDeltas = tag.getLongArray("chunks");
+        int[] owners = tag.getIntArray("owners");
+        long[] monuments = tag.getLongArray("monuments");
+        int[] allowed = tag.getIntArray("allowed");
+
+        if (owners.length != chunkDeltas.length || monuments.length != chunkDeltas.length) {
+            throw new IOException("Claim region columns have mismatched lengths");
+        }
+
+        try {
+            long key = 0L;
+            int cursor = 0;
+            for (int i = 0; i < chunkDeltas.length; i++) {
+                key += chunkDeltas[i];
+
+                ChunkClaimManager.ClaimData claim = new ChunkClaimManager.ClaimData(uuids[owners[i]], BlockPos.of(monuments[i]));
+                int count = allowed[cursor++];
+                for (int j = 0; j < count; j++) {
+                    claim.allowedPlayers.add(uuids[allowed[cursor++]]);
+                }
+
+                into.put(key, claim);
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Claim region references data past the end of its columns", e);
+        }
+    }
+
+    private static int intern(UUID uuid, Object2IntOpenHashMap<UUID> index, LongArrayList table) {
+        int existing = index.getInt(uuid);
+        if (existing >= 0) return existing;
+
+        int added = table.size() / 2;
+        table.add(uuid.getMostSignificantBits());
+        table.add(uuid.getLeastSignificantBits());
+        index.put(uuid, added);
+        return added;
+    }
+}
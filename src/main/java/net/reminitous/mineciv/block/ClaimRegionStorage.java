@@ -0,0 +1,204 @@
+package net.reminitous.mineciv.block;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.world.level.ChunkPos;
+import net.reminitous.mineciv.MineCiv;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Claim storage for one dimension, sharded into 32x32-chunk region files
+ * (data/mineciv_claims/r.X.Z.dat), in the spirit of Anvil region files.
+ * Only regions touched since the last save get rewritten, optionally off the server thread.
+ */
+class ClaimRegionStorage {
+    static final int REGION_SHIFT = 5; // 32x32 chunks per region
+
+    private static final String FILE_PREFIX = "r.";
+    private static final String FILE_SUFFIX = ".dat";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    // One writer thread shared by every dimension keeps writes to the same region in order
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MineCiv Claim Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path directory;
+
+    // Region key -> chunk keys of the claims inside it (both packed with ChunkPos#asLong)
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> regionMembers = new Long2ObjectOpenHashMap<>();
+    private final LongOpenHashSet dirtyRegions = new LongOpenHashSet();
+
+    // Regions the writer thread failed to write; folded back into dirtyRegions on the server thread
+    private final Queue<Long> failedRegions = new ConcurrentLinkedQueue<>();
+    private CompletableFuture<Void> pendingWrites = CompletableFuture.completedFuture(null);
+
+    ClaimRegionStorage(Path directory) {
+        this.directory = directory;
+    }
+
+    static long regionKey(long chunkKey) {
+        return ChunkPos.asLong(ChunkPos.getX(chunkKey) >> REGION_SHIFT, ChunkPos.getZ(chunkKey) >> REGION_SHIFT);
+    }
+
+    void track(long chunkKey) {
+        regionMembers.computeIfAbsent(regionKey(chunkKey), k -> new LongOpenHashSet()).add(chunkKey);
+    }
+
+    void untrack(long chunkKey) {
+        long region = regionKey(chunkKey);
+        LongOpenHashSet members = regionMembers.get(region);
+        if (members != null && members.remove(chunkKey) && members.isEmpty()) {
+            regionMembers.remove(region);
+        }
+    }
+
+    void markDirty(long chunkKey) {
+        dirtyRegions.add(regionKey(chunkKey));
+    }
+
+    void markAllDirty() {
+        dirtyRegions.addAll(regionMembers.keySet());
+    }
+
+    void loadAll(Long2ObjectMap<ChunkClaimManager.ClaimData> into) {
+        if (!Files.isDirectory(directory)) return;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    CompoundTag tag = NbtIo.readCompressed(file, NbtAccounter.unlimitedHeap());
+                    ClaimRegionCodec.decode(tag, into);
+                } catch (IOException e) {
+                    MineCiv.LOGGER.error("Failed to read claim region {}", file, e);
+                }
+            }
+        } catch (IOException e) {
+            MineCiv.LOGGER.error("Failed to list claim regions in {}", directory, e);
+        }
+    }
+
+    /**
+     * Writes every dirty region. The server thread only copies the claims of those regions;
+     * NBT encoding, compression and file IO run on the writer thread when {@code async} is set.
+     */
+    void saveDirty(Long2ObjectMap<ChunkClaimManager.ClaimData> claims, boolean async) {
+        requeueFailedWrites();
+        if (dirtyRegions.isEmpty()) return;
+
+        // Snapshot: detached copies of the dirty regions' claims (null = region is now empty)
+        Long2ObjectMap<Long2ObjectMap<ChunkClaimManager.ClaimData>> snapshot = new Long2ObjectOpenHashMap<>(dirtyRegions.size());
+        LongIterator it = dirtyRegions.iterator();
+        while (it.hasNext()) {
+            long region = it.nextLong();
+            LongOpenHashSet members = regionMembers.get(region);
+            if (members == null) {
+                snapshot.put(region, null);
+                continue;
+            }
+
+            Long2ObjectMap<ChunkClaimManager.ClaimData> regionClaims = new Long2ObjectOpenHashMap<>(members.size());
+            LongIterator keys = members.iterator();
+            while (keys.hasNext()) {
+                long key = keys.nextLong();
+                ChunkClaimManager.ClaimData claim = claims.get(key);
+                if (claim != null) {
+                    regionClaims.put(key, claim.copy());
+                }
+            }
+            snapshot.put(region, regionClaims);
+        }
+        dirtyRegions.clear();
+
+        if (async) {
+            pendingWrites = CompletableFuture.runAsync(() -> writeRegions(snapshot), WRITER);
+        } else {
+            writeRegions(snapshot);
+        }
+    }
+
+    /** Blocks until every region handed to the writer thread is on disk. */
+    void awaitPendingWrites() {
+        try {
+            pendingWrites.join();
+        } catch (CompletionException e) {
+            MineCiv.LOGGER.error("Claim region writer failed", e);
+        }
+    }
+
+    private void writeRegions(Long2ObjectMap<Long2ObjectMap<ChunkClaimManager.ClaimData>> snapshot) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            MineCiv.LOGGER.error("Failed to create claim region directory {}", directory, e);
+            LongIterator regions = snapshot.keySet().iterator();
+            while (regions.hasNext()) {
+                failedRegions.add(regions.nextLong());
+            }
+            return;
+        }
+
+        for (Long2ObjectMap.Entry<Long2ObjectMap<ChunkClaimManager.ClaimData>> entry : snapshot.long2ObjectEntrySet()) {
+            long region = entry.getLongKey();
+            Path file = regionFile(region);
+
+            try {
+                if (entry.getValue() == null) {
+                    // Last claim in the region is gone
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+
+                CompoundTag tag = ClaimRegionCodec.encode(entry.getValue());
+
+                // Write next to the target and swap it in, so a crash mid-write leaves the old region intact
+                Path tmp = file.resolveSibling(file.getFileName() + TMP_SUFFIX);
+                NbtIo.writeCompressed(tag, tmp);
+                moveIntoPlace(tmp, file);
+            } catch (IOException | RuntimeException e) {
+                // Encoding can throw too; either way the old file is untouched. Region is re-marked
+                // dirty and retried on the next save, and the rest of the snapshot still gets written
+                MineCiv.LOGGER.error("Failed to save claim region {}", file, e);
+                failedRegions.add(region);
+            }
+        }
+    }
+
+    private static void moveIntoPlace(Path tmp, Path file) throws IOException {
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void requeueFailedWrites() {
+        Long region;
+        while ((region = failedRegions.poll()) != null) {
+            dirtyRegions.add(region.longValue());
+        }
+    }
+
+    private Path regionFile(long region) {
+        return directory.resolve(FILE_PREFIX + ChunkPos.getX(region) + "." + ChunkPos.getZ(region) + FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,130 @@
+package net.reminitous.mineciv.block;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * Uniform grid over claimed chunks: every 8x8-chunk cell holds the packed keys of the claims
+ * inside it. Box and radius queries only visit overlapping cells, and nearest-claim grows
+ * square rings of cells outward until no closer claim is possible.
+ */
+class ClaimSpatialIndex {
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final int CELL_SHIFT = 3; // 8x8 chunks per cell
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> cells = new Long2ObjectOpenHashMap<>();
+
+    void add(long chunkKey) {
+        cells.computeIfAbsent(cellOf(chunkKey), k -> new LongOpenHashSet()).add(chunkKey);
+    }
+
+    void remove(long chunkKey) {
+        long cell = cellOf(chunkKey);
+        LongOpenHashSet members = cells.get(cell);
+        if (members != null && members.remove(chunkKey) && members.isEmpty()) {
+            cells.remove(cell);
+        }
+    }
+
+    void clear() {
+        cells.clear();
+    }
+
+    /** Claims with minX <= chunkX <= maxX and minZ <= chunkZ <= maxZ. */
+    LongList inBox(int minX, int minZ, int maxX, int maxZ) {
+        LongList result = new LongArrayList();
+
+        for (int cellX = minX >> CELL_SHIFT; cellX <= maxX >> CELL_SHIFT; cellX++) {
+            for (int cellZ = minZ >> CELL_SHIFT; cellZ <= maxZ >> CELL_SHIFT; cellZ++) {
+                LongOpenHashSet members = cells.get(ChunkPos.asLong(cellX, cellZ));
+                if (members == null) continue;
+
+                // Cells fully inside the box need no per-claim test
+                boolean inside = (cellX << CELL_SHIFT) >= minX && ((cellX + 1) << CELL_SHIFT) - 1 <= maxX
+                        && (cellZ << CELL_SHIFT) >= minZ && ((cellZ + 1) << CELL_SHIFT) - 1 <= maxZ;
+
+                LongIterator it = members.iterator();
+                while (it.hasNext()) {
+                    long key = it.nextLong();
+                    if (inside || inBox(key, minX, minZ, maxX, maxZ)) {
+                        result.add(key);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Claims whose chunk lies within {@code radius} chunks (euclidean) of the given chunk. */
+    LongList inRadius(int chunkX, int chunkZ, int radius) {
+        LongList result = new LongArrayList();
+        long radiusSqr = (long) radius * radius;
+
+        LongIterator it = inBox(chunkX - radius, chunkZ - radius, chunkX + radius, chunkZ + radius).iterator();
+        while (it.hasNext()) {
+            long key = it.nextLong();
+            if (distSqr(key, chunkX, chunkZ) <= radiusSqr) {
+                result.add(key);
+            }
+        }
+        return result;
+    }
+
+    /** Closest claim within {@code maxRadius} chunks, or {@link #NONE}. */
+    long nearest(int chunkX, int chunkZ, int maxRadius) {
+        long best = NONE;
+        long bestDistSqr = (long) maxRadius * maxRadius + 1;
+
+        int centerX = chunkX >> CELL_SHIFT;
+        int centerZ = chunkZ >> CELL_SHIFT;
+        int maxRing = (maxRadius >> CELL_SHIFT) + 1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Nothing in this ring can be closer than (ring - 1) whole cells
+            long minReach = (long) Math.max(0, ring - 1) * CELL_SIZE;
+            if (minReach * minReach >= bestDistSqr) break;
+
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dz = -ring; dz <= ring; dz++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) continue; // perimeter only
+
+                    LongOpenHashSet members = cells.get(ChunkPos.asLong(centerX + dx, centerZ + dz));
+                    if (members == null) continue;
+
+                    LongIterator it = members.iterator();
+                    while (it.hasNext()) {
+                        long key = it.nextLong();
+                        long d = distSqr(key, chunkX, chunkZ);
+                        if (d < bestDistSqr) {
+                            bestDistSqr = d;
+                            best = key;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static long cellOf(long chunkKey) {
+        return ChunkPos.asLong(ChunkPos.getX(chunkKey) >> CELL_SHIFT, ChunkPos.getZ(chunkKey) >> CELL_SHIFT);
+    }
+
+    private static boolean inBox(long key, int minX, int minZ, int maxX, int maxZ) {
+        int x = ChunkPos.getX(key);
+        int z = ChunkPos.getZ(key);
+        return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+    }
+
+    private static long distSqr(long key, int chunkX, int chunkZ) {
+        long dx = ChunkPos.getX(key) - chunkX;
+        long dz = ChunkPos.getZ(key) - chunkZ;
+        return dx * dx + dz * dz;
+    }
+}
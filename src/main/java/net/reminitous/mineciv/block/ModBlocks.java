@@ -2,11 +2,9 @@ package net.reminitous.mineciv.block;
 
 import com.mojang.serialization.MapCodec;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Direction;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.util.valueproviders.UniformInt;
-import net.minecraft.world.Container;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
@@ -80,7 +78,7 @@ public class ModBlocks {
                 // Must be claimed and player must be owner
                 boolean isOwner = claim != null && claim.ownerUUID.equals(player.getUUID());
 
-                // SHIFT + right-click: bind adjacent chest/barrel as linked storage
+                // SHIFT + right-click: link the containers in this chunk as the monument's storage
                 if (player.isShiftKeyDown()) {
                     if (!isOwner) {
                         player.sendSystemMessage(Component.literal("You don't own this monument!"));
@@ -92,18 +90,13 @@ public class ModBlocks {
                         return InteractionResult.PASS;
                     }
 
-                    // Bind the first adjacent container (chest/barrel/etc.)
-                    for (Direction dir : Direction.values()) {
-                        BlockPos adj = pos.relative(dir);
-                        BlockEntity adjBe = level.getBlockEntity(adj);
-                        if (adjBe instanceof Container) {
-                            monumentBE.setLinkedChest(adj.immutable());
-                            player.sendSystemMessage(Component.literal("Linked storage set to " + adj.toShortString()));
-                            return InteractionResult.SUCCESS;
-                        }
+                    // Re-links from scratch, so this also picks up containers added since last time
+                    int linked = monumentBE.linkContainersInChunk();
+                    if (linked > 0) {
+                        player.sendSystemMessage(Component.literal("Linked " + linked + " storage container(s) in this chunk"));
+                    } else {
+                        player.sendSystemMessage(Component.literal("No chest/barrel found in this chunk to link."));
                     }
-
-                    player.sendSystemMessage(Component.literal("No adjacent chest/barrel found to link."));
                     return InteractionResult.SUCCESS;
                 }
 
@@ -1,23 +1,40 @@
 package net.reminitous.mineciv.block.entity;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongLists;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.level.block.ChestBlock;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.ChestType;
 import net.reminitous.mineciv.civ.CivilizationType;
+import net.reminitous.mineciv.world.ContainerIndex;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 public class MonumentBlockEntity extends BlockEntity {
 
+    // Single linked container, written by older versions; still read on load
     private static final String NBT_LINKED_CHEST = "LinkedChest";
+    private static final String NBT_LINKED_CONTAINERS = "LinkedContainers";
     private static final String NBT_CIV_TYPE = "CivType";
 
+    public static final int MAX_LINKED_CONTAINERS = 32;
+
     // ---- Stored data ----
-    private @Nullable BlockPos linkedChest;
+    private final LongArrayList linkedContainers = new LongArrayList();
     private CivilizationType civType = CivilizationType.FARMER; // default
 
+    // ---- Runtime ----
+    private @Nullable MonumentStorage storage;
+
     public MonumentBlockEntity(BlockPos pos, BlockState state) {
         super(ModBlockEntities.MONUMENT_BE.get(), pos, state);
     }
@@ -33,6 +50,11 @@ public class MonumentBlockEntity extends BlockEntity {
         this.civType = civType;
         setChanged();
 
+        // Re-file under the new type so villager lookups see the change immediately
+        if (!isRemoved()) {
+            MonumentRegistry.register(this);
+        }
+
         // Sync block update so client UI refreshes
         if (level != null) {
             level.sendBlockUpdated(worldPosition, getBlockState(), getBlockState(), 3);
@@ -42,13 +64,84 @@ public class MonumentBlockEntity extends BlockEntity {
     // --------------------
     // Linked storage
     // --------------------
-    public void setLinkedChest(@Nullable BlockPos pos) {
-        this.linkedChest = pos;
+    /** Packed positions of the containers in this monument's storage network (read-only). */
+    public LongList getLinkedContainers() {
+        return LongLists.unmodifiable(linkedContainers);
+    }
+
+    public boolean hasLinkedStorage() {
+        return !linkedContainers.isEmpty();
+    }
+
+    public MonumentStorage getStorage() {
+        if (storage == null) storage = new MonumentStorage(this);
+        return storage;
+    }
+
+    /**
+     * Replaces the network with every storage container (chests, barrels) in this monument's chunk,
+     * nearest first, up to {@link #MAX_LINKED_CONTAINERS}. Returns how many were linked.
+     */
+    public int linkContainersInChunk() {
+        linkedContainers.clear();
+
+        if (level != null) {
+            List<BlockPos> candidates = new ArrayList<>();
+            for (BlockPos pos : ContainerIndex.containersIn(level, worldPosition.getX() >> 4, worldPosition.getZ() >> 4)) {
+                BlockEntity be = level.getBlockEntity(pos);
+                if (ContainerIndex.hasItemHandler(be) && MonumentStorage.isStorageContainer(be)) candidates.add(pos);
+            }
+            candidates.sort(Comparator.comparingDouble(pos -> pos.distSqr(worldPosition)));
+
+            for (BlockPos pos : candidates) {
+                if (linkedContainers.size() >= MAX_LINKED_CONTAINERS) break;
+                // Both halves of a double chest expose the whole chest; link it once
+                BlockPos partner = chestPartner(pos);
+                if (partner != null && linkedContainers.contains(partner.asLong())) continue;
+
+                linkedContainers.add(pos.asLong());
+            }
+        }
+
+        onLinksChanged();
+        return linkedContainers.size();
+    }
+
+    public void unlinkContainer(BlockPos pos) {
+        if (linkedContainers.rem(pos.asLong())) {
+            onLinksChanged();
+        }
+    }
+
+    @Nullable
+    private BlockPos chestPartner(BlockPos pos) {
+        BlockState state = level.getBlockState(pos);
+        if (!(state.getBlock() instanceof ChestBlock) || state.getValue(ChestBlock.TYPE) == ChestType.SINGLE) return null;
+        return pos.relative(ChestBlock.getConnectedDirection(state));
+    }
+
+    private boolean isInOwnChunk(long pos) {
+        return (BlockPos.getX(pos) >> 4) == (worldPosition.getX() >> 4) && (BlockPos.getZ(pos) >> 4) == (worldPosition.getZ() >> 4);
+    }
+
+    private void onLinksChanged() {
+        if (storage != null) storage.markDirty();
         setChanged();
     }
 
-    public @Nullable BlockPos getLinkedChest() {
-        return linkedChest;
+    // --------------------
+    // Registry
+    // --------------------
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        MonumentRegistry.register(this);
+    }
+
+    @Override
+    public void setRemoved() {
+        MonumentRegistry.unregister(this);
+        super.setRemoved();
     }
 
     // --------------------
@@ -58,8 +151,8 @@ public class MonumentBlockEntity extends BlockEntity {
     protected void saveAdditional(CompoundTag tag, HolderLookup.Provider provider) {
         super.saveAdditional(tag, provider);
 
-        if (linkedChest != null) {
-            tag.putLong(NBT_LINKED_CHEST, linkedChest.asLong());
+        if (!linkedContainers.isEmpty()) {
+            tag.putLongArray(NBT_LINKED_CONTAINERS, linkedContainers.toLongArray());
         }
 
         tag.putString(NBT_CIV_TYPE, civType.name());
@@ -69,9 +162,17 @@ public class MonumentBlockEntity extends BlockEntity {
     protected void loadAdditional(CompoundTag tag, HolderLookup.Provider provider) {
         super.loadAdditional(tag, provider);
 
-        linkedChest = tag.contains(NBT_LINKED_CHEST)
-                ? BlockPos.of(tag.getLong(NBT_LINKED_CHEST))
-                : null;
+        linkedContainers.clear();
+        if (tag.contains(NBT_LINKED_CONTAINERS, Tag.TAG_LONG_ARRAY)) {
+            linkedContainers.addElements(0, tag.getLongArray(NBT_LINKED_CONTAINERS));
+        } else if (tag.contains(NBT_LINKED_CHEST)) {
+            linkedContainers.add(tag.getLong(NBT_LINKED_CHEST));
+        }
+        // The network is limited to the monument's chunk; an older single link could be next door
+        for (int i = linkedContainers.size() - 1; i >= 0; i--) {
+            if (!isInOwnChunk(linkedContainers.getLong(i))) linkedContainers.removeLong(i);
+        }
+        if (storage != null) storage.markDirty();
 
         if (tag.contains(NBT_CIV_TYPE)) {
             try {
@@ -82,5 +183,10 @@ public class MonumentBlockEntity extends BlockEntity {
         } else {
             civType = CivilizationType.FARMER;
         }
+
+        // Data loaded into a live monument (e.g. /data merge) may have changed its type
+        if (level != null && !isRemoved()) {
+            MonumentRegistry.register(this);
+        }
     }
 }
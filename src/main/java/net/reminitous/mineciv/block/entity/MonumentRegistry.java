@@ -0,0 +1,126 @@
+package net.reminitous.mineciv.block.entity;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.reminitous.mineciv.civ.CivilizationType;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side index of loaded monuments, bucketed by civilization type and chunk.
+ * MonumentBlockEntity registers itself on load and unregisters when removed or unloaded,
+ * so "nearest monument of type X" only looks at monuments in the chunks around the origin
+ * instead of scanning a block volume.
+ */
+public class MonumentRegistry {
+    private static final Map<Level, MonumentRegistry> REGISTRIES = new IdentityHashMap<>();
+
+    // type -> chunk key -> monuments in that chunk
+    private final Map<CivilizationType, Long2ObjectOpenHashMap<List<MonumentBlockEntity>>> byType =
+            new EnumMap<>(CivilizationType.class);
+    // The bucket each monument is currently filed under (its civ type can change while loaded)
+    private final Map<MonumentBlockEntity, CivilizationType> indexedType = new IdentityHashMap<>();
+
+    private MonumentRegistry() {
+        for (CivilizationType type : CivilizationType.values()) {
+            byType.put(type, new Long2ObjectOpenHashMap<>());
+        }
+    }
+
+    @Nullable
+    private static MonumentRegistry of(@Nullable Level level, boolean create) {
+        if (!(level instanceof ServerLevel)) return null;
+        return create ? REGISTRIES.computeIfAbsent(level, l -> new MonumentRegistry()) : REGISTRIES.get(level);
+    }
+
+    public static void register(MonumentBlockEntity monument) {
+        MonumentRegistry registry = of(monument.getLevel(), true);
+        if (registry == null) return;
+
+        registry.remove(monument);
+        registry.add(monument);
+    }
+
+    public static void unregister(MonumentBlockEntity monument) {
+        MonumentRegistry registry = of(monument.getLevel(), false);
+        if (registry == null) return;
+
+        registry.remove(monument);
+    }
+
+    public static void onLevelUnload(Level level) {
+        REGISTRIES.remove(level);
+    }
+
+    /**
+     * Nearest loaded monument of the given type inside the box origin ± (horizontalRadius, verticalRadius, horizontalRadius).
+     */
+    @Nullable
+    public static MonumentBlockEntity findNearest(Level level, BlockPos origin, int horizontalRadius, int verticalRadius, CivilizationType type) {
+        MonumentRegistry registry = of(level, false);
+        if (registry == null) return null;
+
+        Long2ObjectOpenHashMap<List<MonumentBlockEntity>> chunks = registry.byType.get(type);
+        if (chunks.isEmpty()) return null;
+
+        MonumentBlockEntity best = null;
+        double bestDist = Double.MAX_VALUE;
+
+        int minChunkX = (origin.getX() - horizontalRadius) >> 4;
+        int maxChunkX = (origin.getX() + horizontalRadius) >> 4;
+        int minChunkZ = (origin.getZ() - horizontalRadius) >> 4;
+        int maxChunkZ = (origin.getZ() + horizontalRadius) >> 4;
+
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                List<MonumentBlockEntity> monuments = chunks.get(ChunkPos.asLong(cx, cz));
+                if (monuments == null) continue;
+
+                for (MonumentBlockEntity monument : monuments) {
+                    if (monument.isRemoved()) continue;
+
+                    BlockPos pos = monument.getBlockPos();
+                    if (Math.abs(pos.getX() - origin.getX()) > horizontalRadius) continue;
+                    if (Math.abs(pos.getZ() - origin.getZ()) > horizontalRadius) continue;
+                    if (Math.abs(pos.getY() - origin.getY()) > verticalRadius) continue;
+
+                    double d = pos.distSqr(origin);
+                    if (d < bestDist) {
+                        bestDist = d;
+                        best = monument;
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    private void add(MonumentBlockEntity monument) {
+        CivilizationType type = monument.getCivType();
+        long chunk = ChunkPos.asLong(monument.getBlockPos());
+
+        byType.get(type).computeIfAbsent(chunk, k -> new ArrayList<>(1)).add(monument);
+        indexedType.put(monument, type);
+    }
+
+    private void remove(MonumentBlockEntity monument) {
+        CivilizationType type = indexedType.remove(monument);
+        if (type == null) return;
+
+        Long2ObjectOpenHashMap<List<MonumentBlockEntity>> chunks = byType.get(type);
+        long chunk = ChunkPos.asLong(monument.getBlockPos());
+        List<MonumentBlockEntity> monuments = chunks.get(chunk);
+        if (monuments != null && monuments.remove(monument) && monuments.isEmpty()) {
+            chunks.remove(chunk);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package net.reminitous.mineciv.block.entity;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMaps;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.entity.BarrelBlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.ChestBlockEntity;
+import net.minecraftforge.common.Tags;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
+import net.minecraftforge.items.IItemHandler;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Aggregate view of the containers linked to a monument: total stock per item, free space, and
+ * which containers can still top up a partial stack of each item.
+ * <p>
+ * Containers change without telling anyone (players, hoppers, other mods), so the view is rebuilt
+ * from the linked handlers at most every {@link #REFRESH_TICKS}, or sooner after
+ * {@link #markDirty()}. Routing decisions read the cached view; the actual insert still goes through
+ * the handler, so a slightly stale view costs at most a less-than-ideal pick.
+ */
+public class MonumentStorage {
+    private static final int REFRESH_TICKS = 40;
+
+    private final MonumentBlockEntity monument;
+
+    private boolean dirty = true;
+    private long refreshedAt;
+
+    private final Reference2IntOpenHashMap<Item> totals = new Reference2IntOpenHashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private long totalItems;
+    private int freeSlots;
+    private int totalSlots;
+
+    // One linked container as of the last refresh
+    private record Entry(BlockPos pos, int freeSlots, ReferenceOpenHashSet<Item> topUp) {
+    }
+
+    MonumentStorage(MonumentBlockEntity monument) {
+        this.monument = monument;
+    }
+
+    /**
+     * Containers that only store items. Furnaces, hoppers and the like also expose an item handler,
+     * but depositing into them would smelt or move the items on.
+     */
+    public static boolean isStorageContainer(BlockEntity be) {
+        BlockState state = be.getBlockState();
+        return be instanceof ChestBlockEntity
+                || be instanceof BarrelBlockEntity
+                || state.is(Tags.Blocks.CHESTS)
+                || state.is(Tags.Blocks.BARRELS);
+    }
+
+    /** Forces a rebuild on next read, e.g. after the links changed. */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    // --------------------
+    // Totals
+    // --------------------
+    public int count(Item item) {
+        refreshIfStale();
+        return totals.getInt(item);
+    }
+
+    /** Stock per item across all linked containers (read-only). */
+    public Reference2IntMap<Item> totals() {
+        refreshIfStale();
+        return Reference2IntMaps.unmodifiable(totals);
+    }
+
+    public long totalItems() {
+        refreshIfStale();
+        return totalItems;
+    }
+
+    public int freeSlots() {
+        refreshIfStale();
+        return freeSlots;
+    }
+
+    public int totalSlots() {
+        refreshIfStale();
+        return totalSlots;
+    }
+
+    // --------------------
+    // Routing
+    // --------------------
+
+    /**
+     * Linked container that best takes the stacks in {@code source} accepted by {@code filter}:
+     * the one that can top up the most of them, then the one with the most free slots.
+     * Null if nothing is linked or every linked container looks full for them.
+     */
+    @Nullable
+    public BlockPos findDepositTarget(Container source, Predicate<ItemStack> filter) {
+        refreshIfStale();
+        if (entries.isEmpty()) return null;
+
+        List<Item> payload = new ArrayList<>();
+        for (int i = 0; i < source.getContainerSize(); i++) {
+            ItemStack stack = source.getItem(i);
+            if (!stack.isEmpty() && filter.test(stack)) payload.add(stack.getItem());
+        }
+
+        BlockPos best = null;
+        int bestTopUps = 0;
+        int bestFree = 0;
+
+        for (Entry entry : entries) {
+            int topUps = 0;
+            for (Item item : payload) {
+                if (entry.topUp().contains(item)) topUps++;
+            }
+            if (topUps == 0 && entry.freeSlots() == 0) continue;
+
+            if (best == null || topUps > bestTopUps || (topUps == bestTopUps && entry.freeSlots() > bestFree)) {
+                best = entry.pos();
+                bestTopUps = topUps;
+                bestFree = entry.freeSlots();
+            }
+        }
+        return best;
+    }
+
+    // --------------------
+    // Internals
+    // --------------------
+    private void refreshIfStale() {
+        Level level = monument.getLevel();
+        if (level == null) return;
+
+        long now = level.getGameTime();
+        if (!dirty && now - refreshedAt < REFRESH_TICKS) return;
+
+        totals.clear();
+        entries.clear();
+        totalItems = 0;
+        freeSlots = 0;
+        totalSlots = 0;
+
+        LongList links = monument.getLinkedContainers();
+        LongArrayList gone = new LongArrayList();
+        for (int i = 0; i < links.size(); i++) {
+            long packed = links.getLong(i);
+            BlockPos pos = BlockPos.of(packed);
+            // Never load a chunk to read storage
+            if (!level.isLoaded(pos)) continue;
+
+            IItemHandler handler = handlerAt(level, pos);
+            if (handler == null) {
+                gone.add(packed);
+                continue;
+            }
+            entries.add(summarize(pos, handler));
+        }
+
+        // Broken or replaced containers (or ones older versions linked that aren't storage) drop out of the
+        // network; this view already leaves them out
+        for (int i = 0; i < gone.size(); i++) {
+            monument.unlinkContainer(BlockPos.of(gone.getLong(i)));
+        }
+
+        dirty = false;
+        refreshedAt = now;
+    }
+
+    private Entry summarize(BlockPos pos, IItemHandler handler) {
+        ReferenceOpenHashSet<Item> topUp = new ReferenceOpenHashSet<>();
+        int free = 0;
+
+        int slots = handler.getSlots();
+        for (int i = 0; i < slots; i++) {
+            ItemStack stack = handler.getStackInSlot(i);
+            if (stack.isEmpty()) {
+                free++;
+                continue;
+            }
+
+            totals.addTo(stack.getItem(), stack.getCount());
+            totalItems += stack.getCount();
+            if (stack.getCount() < Math.min(stack.getMaxStackSize(), handler.getSlotLimit(i))) {
+                topUp.add(stack.getItem());
+            }
+        }
+
+        freeSlots += free;
+        totalSlots += slots;
+        return new Entry(pos, free, topUp);
+    }
+
+    @Nullable
+    private static IItemHandler handlerAt(Level level, BlockPos pos) {
+        BlockEntity be = level.getBlockEntity(pos);
+        if (be == null || be.isRemoved() || !isStorageContainer(be)) return null;
+        return be.getCapability(ForgeCapabilities.ITEM_HANDLER, null).orElse(null);
+    }
+}
@@ -0,0 +1,55 @@
+package net.reminitous.mineciv.command;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.reminitous.mineciv.MineCiv;
+import net.reminitous.mineciv.ai.AiBudget;
+import net.reminitous.mineciv.ai.GoalScheduler;
+import net.reminitous.mineciv.ai.NavigationHelper;
+import net.reminitous.mineciv.ai.WorkReservations;
+import net.reminitous.mineciv.block.ChunkClaimManager;
+
+import java.util.Locale;
+
+@Mod.EventBusSubscriber(modid = MineCiv.MOD_ID)
+public class MineCivCommands {
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal("mineciv")
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("ai")
+                        .executes(context -> showAiStats(context.getSource()))));
+    }
+
+    // /mineciv ai — where goal time goes and how much the caches and limits are saving
+    private static int showAiStats(CommandSourceStack source) {
+        AiBudget.Stats budget = AiBudget.getStats();
+        GoalScheduler.Stats scans = GoalScheduler.getStats();
+        NavigationHelper.Stats paths = NavigationHelper.getStats();
+        WorkReservations.Stats leases = WorkReservations.getStats();
+        ChunkClaimManager.EditCacheStats claims = ChunkClaimManager.getEditCacheStats(source.getLevel());
+
+        send(source, "AI budget: %.2f ms last tick, %.2f ms avg, %.2f ms allowed; backoff x%d (%d ticks over budget)",
+                budget.lastTickMs(), budget.averageTickMs(), budget.budgetMs(), budget.degradation(), budget.overBudgetTicks());
+        send(source, "Scans: %d run, %d deferred (%.1f%%)",
+                scans.granted(), scans.deferred(), scans.deferralRate() * 100.0);
+        send(source, "Paths: %d requested, %d suppressed (%.1f%%)",
+                paths.issued(), paths.suppressed(), paths.suppressionRate() * 100.0);
+        send(source, "Claim edit cache: %d hits, %d misses (%.1f%% hit rate)",
+                claims.hits(), claims.misses(), claims.hitRate() * 100.0);
+        send(source, "Reservations: %d active; %d granted, %d renewed, %d contended (%.1f%%), %d expired, %d released",
+                leases.active(), leases.granted(), leases.renewed(), leases.contended(), leases.contentionRate() * 100.0,
+                leases.expired(), leases.released());
+        return 1;
+    }
+
+    private static void send(CommandSourceStack source, String format, Object... args) {
+        String line = String.format(Locale.ROOT, format, args);
+        source.sendSuccess(() -> Component.literal(line), false);
+    }
+}
@@ -18,6 +18,8 @@ import net.minecraft.world.item.ArmorItem;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.SwordItem;
 import net.minecraft.world.level.Level;
+import net.reminitous.mineciv.ai.AiBudget;
+import net.reminitous.mineciv.ai.NavigationHelper;
 import net.reminitous.mineciv.block.ChunkClaimManager;
 
 import javax.annotation.Nullable;
@@ -269,8 +271,14 @@ public class KnightNPC extends PathfinderMob {
             LivingEntity owner = knight.getOwnerEntity();
             if (owner == null) return;
 
-            knight.getNavigation().moveTo(owner, speed);
-            knight.getLookControl().setLookAt(owner, 30.0F, 30.0F);
+            long started = AiBudget.begin(knight);
+            try {
+                // Owner moves every tick; only re-path once they've moved away from the old target
+                NavigationHelper.moveTo(knight, owner, speed);
+                knight.getLookControl().setLookAt(owner, 30.0F, 30.0F);
+            } finally {
+                AiBudget.end(started);
+            }
         }
     }
 
@@ -307,7 +315,12 @@ public class KnightNPC extends PathfinderMob {
             BlockPos post = knight.getPostPos();
             if (post == null) return;
 
-            knight.getNavigation().moveTo(post.getX() + 0.5, post.getY(), post.getZ() + 0.5, speed);
+            long started = AiBudget.begin(knight);
+            try {
+                NavigationHelper.moveTo(knight, post, speed);
+            } finally {
+                AiBudget.end(started);
+            }
         }
     }
 
@@ -345,8 +358,15 @@ public class KnightNPC extends PathfinderMob {
                     knight.getRandom().nextInt(radius * 2 + 1) - radius
             );
 
-            knight.getNavigation().moveTo(dest.getX() + 0.5, dest.getY(), dest.getZ() + 0.5, speed);
-            cooldown = 60;
+            long started = AiBudget.begin(knight);
+            try {
+                NavigationHelper.moveTo(knight, dest, speed);
+            } finally {
+                AiBudget.end(started);
+            }
+
+            // Patrolling is optional work; wander less while the server is behind
+            cooldown = AiBudget.scaleCooldown(60);
         }
     }
 
@@ -0,0 +1,21 @@
+package net.reminitous.mineciv.event;
+
+import net.minecraft.world.entity.Mob;
+import net.minecraftforge.event.entity.living.LivingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.reminitous.mineciv.MineCiv;
+import net.reminitous.mineciv.ai.NavigationHelper;
+
+@Mod.EventBusSubscriber(modid = MineCiv.MOD_ID)
+public class ModEntityEvents {
+
+    // Issues path requests NavigationHelper held back while the mob had just re-pathed
+    @SubscribeEvent
+    public static void onLivingTick(LivingEvent.LivingTickEvent event) {
+        if (!(event.getEntity() instanceof Mob mob)) return;
+        if (mob.level().isClientSide()) return;
+
+        NavigationHelper.tick(mob);
+    }
+}
@@ -0,0 +1,127 @@
+package net.reminitous.mineciv.event;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.entity.player.BonemealEvent;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.reminitous.mineciv.MineCiv;
+import net.reminitous.mineciv.ai.WorkReservations;
+import net.reminitous.mineciv.block.ChunkClaimManager;
+import net.reminitous.mineciv.block.entity.MonumentRegistry;
+import net.reminitous.mineciv.villager.WorkItems;
+import net.reminitous.mineciv.world.ContainerIndex;
+import net.reminitous.mineciv.world.CropTracker;
+import net.reminitous.mineciv.world.DropIndex;
+import net.reminitous.mineciv.world.LogIndex;
+
+@Mod.EventBusSubscriber(modid = MineCiv.MOD_ID)
+public class ModLevelEvents {
+
+    @SubscribeEvent
+    public static void onLevelLoad(LevelEvent.Load event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        ChunkClaimManager.onLevelLoad(serverLevel);
+    }
+
+    @SubscribeEvent
+    public static void onLevelSave(LevelEvent.Save event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        ChunkClaimManager.onLevelSave(serverLevel);
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        ChunkClaimManager.onLevelUnload(serverLevel);
+        MonumentRegistry.onLevelUnload(serverLevel);
+        ContainerIndex.onLevelUnload(serverLevel);
+        LogIndex.onLevelUnload(serverLevel);
+        CropTracker.onLevelUnload(serverLevel);
+        WorkReservations.onLevelUnload(serverLevel);
+        DropIndex.onLevelUnload(serverLevel);
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        ContainerIndex.onChunkUnload(serverLevel, event.getChunk().getPos());
+        LogIndex.onChunkUnload(serverLevel, event.getChunk().getPos());
+        CropTracker.onChunkUnload(serverLevel, event.getChunk().getPos());
+    }
+
+    @SubscribeEvent
+    public static void onBlockPlaced(BlockEvent.EntityPlaceEvent event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        if (event.getPlacedBlock().hasBlockEntity()) {
+            ContainerIndex.invalidate(serverLevel, event.getPos());
+        }
+        LogIndex.onBlockChanged(serverLevel, event.getPos(), event.getPlacedBlock());
+        CropTracker.onBlockChanged(serverLevel, event.getPos(), event.getPlacedBlock());
+    }
+
+    // Fires for most block changes made outside of entity placement (breaking, commands, tree growth)
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        if (event.getState().hasBlockEntity()) {
+            ContainerIndex.invalidate(serverLevel, event.getPos());
+        }
+        LogIndex.onBlockChanged(serverLevel, event.getPos(), event.getState());
+        CropTracker.onBlockChanged(serverLevel, event.getPos(), event.getState());
+    }
+
+    // Random-tick growth sets the block without a neighbor update, so it needs its own hook
+    @SubscribeEvent
+    public static void onCropGrow(BlockEvent.CropGrowEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        CropTracker.onBlockChanged(serverLevel, event.getPos(), event.getState());
+    }
+
+    // Same for bone meal, which also fires before the crop has grown
+    @SubscribeEvent
+    public static void onBonemeal(BonemealEvent event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+
+        CropTracker.onBonemeal(serverLevel, event.getPos());
+    }
+
+    @SubscribeEvent
+    public static void onEntityJoin(EntityJoinLevelEvent event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+        if (!(event.getEntity() instanceof ItemEntity item)) return;
+
+        DropIndex.onItemJoin(serverLevel, item);
+    }
+
+    // Covers pickup, merging, despawn (after ItemExpireEvent) and chunk unload
+    @SubscribeEvent
+    public static void onEntityLeave(EntityLeaveLevelEvent event) {
+        if (!(event.getLevel() instanceof ServerLevel serverLevel)) return;
+        if (!(event.getEntity() instanceof ItemEntity item)) return;
+
+        DropIndex.onItemLeave(serverLevel, item);
+    }
+
+    // Datapack reloads can change which items are logs or saplings. Only the server's own reload
+    // counts: the client copy arrives on another thread in singleplayer.
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        if (event.getUpdateCause() != TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) return;
+
+        WorkItems.onTagsUpdated();
+    }
+}
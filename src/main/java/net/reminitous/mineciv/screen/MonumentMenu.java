@@ -5,7 +5,9 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerData;
 import net.minecraft.world.inventory.MenuType;
+import net.minecraft.world.inventory.SimpleContainerData;
 import net.minecraft.world.level.Level;
 import net.minecraftforge.common.extensions.IForgeMenuType;
 import net.minecraftforge.eventbus.api.IEventBus;
@@ -15,6 +17,7 @@ import net.minecraftforge.registries.RegistryObject;
 import net.reminitous.mineciv.MineCiv;
 import net.reminitous.mineciv.block.ChunkClaimManager;
 import net.reminitous.mineciv.block.entity.MonumentBlockEntity;
+import net.reminitous.mineciv.block.entity.MonumentStorage;
 import net.reminitous.mineciv.civ.CivilizationType;
 
 import javax.annotation.Nullable;
@@ -31,17 +34,35 @@ public class MonumentMenu extends AbstractContainerMenu {
                 return new MonumentMenu(windowId, inv, pos);
             }));
 
+    // Storage network totals synced to the client. Data slots are sent as shorts, so the item
+    // total is split into two 16-bit halves.
+    private static final int DATA_LINKED = 0;
+    private static final int DATA_FREE_SLOTS = 1;
+    private static final int DATA_TOTAL_SLOTS = 2;
+    private static final int DATA_ITEMS_LOW = 3;
+    private static final int DATA_ITEMS_HIGH = 4;
+    private static final int DATA_COUNT = 5;
+
     private final Level level;
     private final BlockPos monumentPos;
     private final int chunkX;
     private final int chunkZ;
+    private final ContainerData storageData;
 
     public MonumentMenu(int windowId, Inventory playerInventory, BlockPos monumentPos) {
+        this(windowId, playerInventory, monumentPos, new SimpleContainerData(DATA_COUNT));
+    }
+
+    public MonumentMenu(int windowId, Inventory playerInventory, BlockPos monumentPos, ContainerData storageData) {
         super(MONUMENT_MENU.get(), windowId);
         this.level = playerInventory.player.level();
         this.monumentPos = monumentPos;
         this.chunkX = monumentPos.getX() >> 4;
         this.chunkZ = monumentPos.getZ() >> 4;
+        this.storageData = storageData;
+
+        checkContainerDataCount(storageData, DATA_COUNT);
+        addDataSlots(storageData);
     }
 
     @Override
@@ -95,6 +116,55 @@ public class MonumentMenu extends AbstractContainerMenu {
         return ChunkClaimManager.getAllowedPlayers(player.level(), chunkX, chunkZ);
     }
 
+    // --------------------
+    // Storage network
+    // --------------------
+    public int getLinkedContainerCount() {
+        return storageData.get(DATA_LINKED);
+    }
+
+    public int getStorageFreeSlots() {
+        return storageData.get(DATA_FREE_SLOTS);
+    }
+
+    public int getStorageTotalSlots() {
+        return storageData.get(DATA_TOTAL_SLOTS);
+    }
+
+    public int getStoredItemCount() {
+        return (storageData.get(DATA_ITEMS_LOW) & 0xFFFF) | (storageData.get(DATA_ITEMS_HIGH) & 0xFFFF) << 16;
+    }
+
+    // Server side: reads the monument's cached storage totals
+    private static ContainerData storageData(Level level, BlockPos pos) {
+        return new ContainerData() {
+            @Override
+            public int get(int index) {
+                if (!(level.getBlockEntity(pos) instanceof MonumentBlockEntity be)) return 0;
+
+                MonumentStorage storage = be.getStorage();
+                int items = (int) Math.min(storage.totalItems(), Integer.MAX_VALUE);
+                return switch (index) {
+                    case DATA_LINKED -> be.getLinkedContainers().size();
+                    case DATA_FREE_SLOTS -> storage.freeSlots();
+                    case DATA_TOTAL_SLOTS -> storage.totalSlots();
+                    case DATA_ITEMS_LOW -> items & 0xFFFF;
+                    case DATA_ITEMS_HIGH -> items >>> 16;
+                    default -> 0;
+                };
+            }
+
+            @Override
+            public void set(int index, int value) {
+            }
+
+            @Override
+            public int getCount() {
+                return DATA_COUNT;
+            }
+        };
+    }
+
     public static class MonumentMenuProvider implements net.minecraft.world.MenuProvider {
         private final BlockPos pos;
 
@@ -110,7 +180,7 @@ public class MonumentMenu extends AbstractContainerMenu {
         @Nullable
         @Override
         public AbstractContainerMenu createMenu(int containerId, Inventory playerInventory, Player player) {
-            return new MonumentMenu(containerId, playerInventory, pos);
+            return new MonumentMenu(containerId, playerInventory, pos, storageData(player.level(), pos));
         }
     }
 
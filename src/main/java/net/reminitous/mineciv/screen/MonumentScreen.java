@@ -62,6 +62,15 @@ public class MonumentScreen extends AbstractContainerScreen<MonumentMenu> {
 
         CivilizationType current = this.menu.getCivilizationType();
         gfx.drawString(this.font, "Current: " + current.name(), 8, 16, 0xCFCFCF);
+
+        // Storage network summary, below the buttons
+        if (this.menu.getLinkedContainerCount() > 0) {
+            gfx.drawString(this.font, "Storage: " + this.menu.getStoredItemCount() + " items", 8, 148, 0xCFCFCF);
+            gfx.drawString(this.font, this.menu.getStorageFreeSlots() + "/" + this.menu.getStorageTotalSlots()
+                    + " slots free, " + this.menu.getLinkedContainerCount() + " linked", 8, 157, 0xCFCFCF);
+        } else {
+            gfx.drawString(this.font, "No linked storage", 8, 148, 0xCFCFCF);
+        }
     }
 
     @Override
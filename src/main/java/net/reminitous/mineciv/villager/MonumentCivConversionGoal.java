@@ -5,10 +5,11 @@ import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.npc.Villager;
 import net.minecraft.world.entity.npc.VillagerProfession;
-import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.entity.BlockEntity;
-import net.reminitous.mineciv.block.ModBlocks;
+import net.reminitous.mineciv.ai.AiBudget;
+import net.reminitous.mineciv.ai.GoalScheduler;
+import net.reminitous.mineciv.ai.NavigationHelper;
 import net.reminitous.mineciv.block.entity.MonumentBlockEntity;
+import net.reminitous.mineciv.block.entity.MonumentRegistry;
 import net.reminitous.mineciv.civ.CivilizationType;
 
 import javax.annotation.Nullable;
@@ -29,21 +30,31 @@ public class MonumentCivConversionGoal extends Goal {
     public MonumentCivConversionGoal(Villager villager) {
         this.villager = villager;
         this.setFlags(EnumSet.of(Flag.MOVE, Flag.LOOK));
+        this.cooldown = GoalScheduler.phaseOffset(villager, COOLDOWN_TICKS);
     }
 
     @Override
     public boolean canUse() {
+        long started = AiBudget.begin(villager);
+        try {
+            return checkCanUse();
+        } finally {
+            AiBudget.end(started);
+        }
+    }
+
+    private boolean checkCanUse() {
         if (cooldown-- > 0) return false;
 
         // Only convert unemployed villagers
         if (villager.getVillagerData().getProfession() != VillagerProfession.NONE) {
-            cooldown = COOLDOWN_TICKS;
+            cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
             return false;
         }
 
         targetMonument = findNearestFarmerMonument(villager.blockPosition(), SEARCH_RADIUS);
         if (targetMonument == null) {
-            cooldown = COOLDOWN_TICKS;
+            cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
             return false;
         }
 
@@ -53,12 +64,7 @@ public class MonumentCivConversionGoal extends Goal {
     @Override
     public void start() {
         if (targetMonument != null) {
-            villager.getNavigation().moveTo(
-                    targetMonument.getX() + 0.5,
-                    targetMonument.getY(),
-                    targetMonument.getZ() + 0.5,
-                    1.0
-            );
+            NavigationHelper.moveTo(villager, targetMonument, 1.0);
         }
     }
 
@@ -69,6 +75,15 @@ public class MonumentCivConversionGoal extends Goal {
 
     @Override
     public void tick() {
+        long started = AiBudget.begin(villager);
+        try {
+            tickWork();
+        } finally {
+            AiBudget.end(started);
+        }
+    }
+
+    private void tickWork() {
         if (targetMonument == null) return;
 
         double dist = villager.distanceToSqr(
@@ -95,38 +110,16 @@ public class MonumentCivConversionGoal extends Goal {
                 villager.refreshBrain(serverLevel);
             }
 
-            villager.getNavigation().stop();
+            NavigationHelper.stop(villager);
 
             targetMonument = null;
-            cooldown = COOLDOWN_TICKS;
+            cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
         }
     }
 
     @Nullable
     private BlockPos findNearestFarmerMonument(BlockPos origin, int r) {
-        Level level = villager.level();
-
-        BlockPos best = null;
-        double bestDist = Double.MAX_VALUE;
-
-        for (BlockPos pos : BlockPos.betweenClosed(
-                origin.offset(-r, -2, -r),
-                origin.offset(r, 2, r)
-        )) {
-            if (level.getBlockState(pos).getBlock() != ModBlocks.MONUMENT_BLOCK.get()) continue;
-
-            BlockEntity be = level.getBlockEntity(pos);
-            if (!(be instanceof MonumentBlockEntity monumentBE)) continue;
-
-            if (monumentBE.getCivType() != CivilizationType.FARMER) continue;
-
-            double d = pos.distSqr(origin);
-            if (d < bestDist) {
-                bestDist = d;
-                best = pos.immutable();
-            }
-        }
-
-        return best;
+        MonumentBlockEntity monument = MonumentRegistry.findNearest(villager.level(), origin, r, 2, CivilizationType.FARMER);
+        return monument != null ? monument.getBlockPos() : null;
     }
 }
@@ -0,0 +1,73 @@
+package net.reminitous.mineciv.villager;
+
+import net.minecraft.world.entity.ai.goal.Goal;
+import net.minecraft.world.entity.ai.goal.WrappedGoal;
+import net.minecraft.world.entity.npc.Villager;
+import net.minecraft.world.entity.npc.VillagerProfession;
+import net.reminitous.mineciv.villager.goal.CultivatorWorkGoal;
+import net.reminitous.mineciv.villager.goal.LumberjackWorkGoal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Installs the MineCiv goal that matches a villager's current profession, and only that one.
+ * <p>
+ * Unemployed villagers get the conversion goal, cultivators and lumberjacks their work goal, and
+ * everyone else nothing. Goals live on the entity instance, so the profession they were installed
+ * for is tracked per instance (weakly) rather than in persistent data: a villager loaded from disk
+ * is a new instance and gets its goals again. Only the profession is kept; our goals hold their
+ * villager, so keeping them here would keep the weak key alive. {@link #sync} is idempotent and
+ * swaps the goal when the profession changes; call it from outside goal ticking, since it edits the
+ * goal selector.
+ */
+public final class VillagerGoals {
+    // Lower number = higher priority; conversion runs ahead of any other work
+    private static final int CONVERSION_PRIORITY = 1;
+    private static final int WORK_PRIORITY = 3;
+
+    private static final Map<Villager, VillagerProfession> INSTALLED = new WeakHashMap<>();
+
+    private VillagerGoals() {
+    }
+
+    public static void sync(Villager villager) {
+        VillagerProfession profession = villager.getVillagerData().getProfession();
+
+        VillagerProfession installed = INSTALLED.get(villager);
+        if (installed == profession) return;
+
+        if (installed != null) {
+            removeOurGoals(villager);
+        }
+
+        if (profession == VillagerProfession.NONE) {
+            villager.goalSelector.addGoal(CONVERSION_PRIORITY, new MonumentCivConversionGoal(villager));
+        } else if (profession == ModVillagers.CULTIVATOR.get()) {
+            villager.goalSelector.addGoal(WORK_PRIORITY, new CultivatorWorkGoal(villager));
+        } else if (profession == ModVillagers.LUMBERJACK.get()) {
+            villager.goalSelector.addGoal(WORK_PRIORITY, new LumberjackWorkGoal(villager));
+        }
+
+        INSTALLED.put(villager, profession);
+    }
+
+    private static boolean isOurs(Goal goal) {
+        return goal instanceof MonumentCivConversionGoal
+                || goal instanceof CultivatorWorkGoal
+                || goal instanceof LumberjackWorkGoal;
+    }
+
+    // removeGoal stops a running goal first, so it can release its leases
+    private static void removeOurGoals(Villager villager) {
+        List<Goal> ours = new ArrayList<>();
+        for (WrappedGoal wrapped : villager.goalSelector.getAvailableGoals()) {
+            if (isOurs(wrapped.getGoal())) ours.add(wrapped.getGoal());
+        }
+        for (Goal goal : ours) {
+            villager.goalSelector.removeGoal(goal);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package net.reminitous.mineciv.villager;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.world.SimpleContainer;
+import net.minecraft.world.entity.npc.Villager;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.common.ToolActions;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Cached per-villager view of its inventory: item counts, the first slot holding each item,
+ * deposit totals, the best axe and the first free slot.
+ * <p>
+ * The summary is rebuilt lazily after the inventory reports a change through its container
+ * listener. Code that changes a stack in place (shrink/grow) doesn't trigger the listener, so
+ * MineCiv code calls {@code setChanged()} after doing that. Vanilla code may not, so a summary is
+ * also rebuilt once it is {@link #MAX_AGE_TICKS} old.
+ */
+public final class VillagerInventorySummary {
+    private static final Map<Villager, VillagerInventorySummary> SUMMARIES = new WeakHashMap<>();
+
+    private static final int MAX_AGE_TICKS = 100;
+
+    private boolean dirty = true;
+    private long builtAt;
+
+    private final Reference2IntOpenHashMap<Item> counts = new Reference2IntOpenHashMap<>();
+    private final Reference2IntOpenHashMap<Item> firstSlots = new Reference2IntOpenHashMap<>();
+    private int lumberDeposits;
+    private int cropDeposits;
+    private int bestAxeSlot = -1;
+    private float bestAxeSpeed;
+    private int firstFreeSlot = -1;
+
+    private VillagerInventorySummary() {
+        firstSlots.defaultReturnValue(-1);
+    }
+
+    public static VillagerInventorySummary of(Villager villager) {
+        VillagerInventorySummary summary = SUMMARIES.get(villager);
+        if (summary == null) {
+            VillagerInventorySummary created = new VillagerInventorySummary();
+            villager.getInventory().addListener(container -> created.dirty = true);
+            SUMMARIES.put(villager, created);
+            summary = created;
+        }
+
+        long now = villager.level().getGameTime();
+        if (summary.dirty || now - summary.builtAt >= MAX_AGE_TICKS) {
+            summary.rebuild(villager.getInventory(), now);
+        }
+        return summary;
+    }
+
+    /** Reference block axes are compared on. */
+    public static float axeSpeed(ItemStack stack) {
+        return stack.getDestroySpeed(referenceLog());
+    }
+
+    public int count(Item item) {
+        return counts.getInt(item);
+    }
+
+    /** First slot holding {@code item}, or -1. */
+    public int slotOf(Item item) {
+        return firstSlots.getInt(item);
+    }
+
+    public int lumberDepositCount() {
+        return lumberDeposits;
+    }
+
+    public int cropDepositCount() {
+        return cropDeposits;
+    }
+
+    /** Slot of the fastest axe in the inventory, or -1. */
+    public int bestAxeSlot() {
+        return bestAxeSlot;
+    }
+
+    public float bestAxeSpeed() {
+        return bestAxeSpeed;
+    }
+
+    /** First empty slot, or -1 if the inventory is full. */
+    public int firstFreeSlot() {
+        return firstFreeSlot;
+    }
+
+    private void rebuild(SimpleContainer inv, long now) {
+        counts.clear();
+        firstSlots.clear();
+        lumberDeposits = 0;
+        cropDeposits = 0;
+        bestAxeSlot = -1;
+        bestAxeSpeed = 0.0f;
+        firstFreeSlot = -1;
+
+        for (int i = 0; i < inv.getContainerSize(); i++) {
+            ItemStack stack = inv.getItem(i);
+            if (stack.isEmpty()) {
+                if (firstFreeSlot < 0) firstFreeSlot = i;
+                continue;
+            }
+
+            Item item = stack.getItem();
+            counts.addTo(item, stack.getCount());
+            firstSlots.putIfAbsent(item, i);
+
+            if (WorkItems.isLumberDeposit(stack)) lumberDeposits += stack.getCount();
+            if (WorkItems.isCropDeposit(item)) cropDeposits += stack.getCount();
+
+            if (stack.canPerformAction(ToolActions.AXE_DIG)) {
+                float speed = axeSpeed(stack);
+                if (speed > bestAxeSpeed) {
+                    bestAxeSpeed = speed;
+                    bestAxeSlot = i;
+                }
+            }
+        }
+
+        dirty = false;
+        builtAt = now;
+    }
+
+    private static BlockState referenceLog() {
+        return Blocks.OAK_LOG.defaultBlockState();
+    }
+}
@@ -0,0 +1,77 @@
+package net.reminitous.mineciv.villager;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+import java.util.Set;
+
+/**
+ * What worker villagers do with each item, resolved once per item.
+ * <p>
+ * Tag membership is looked up the first time an item is seen and cached until tags are reloaded,
+ * so checks on the hot paths are a single map read.
+ */
+public final class WorkItems {
+    private static final int LUMBER_DEPOSIT = 1;
+    private static final int CROP_DEPOSIT = 1 << 1;
+
+    // What cultivators carry to storage
+    private static final Set<Item> CROP_DEPOSITS = Set.of(
+            Items.WHEAT,
+            Items.CARROT,
+            Items.POTATO,
+            Items.BEETROOT,
+            Items.WHEAT_SEEDS,
+            Items.BEETROOT_SEEDS,
+            Items.MELON_SEEDS,
+            Items.PUMPKIN_SEEDS
+    );
+
+    private static final Reference2IntOpenHashMap<Item> FLAGS = new Reference2IntOpenHashMap<>();
+
+    static {
+        FLAGS.defaultReturnValue(-1);
+    }
+
+    private WorkItems() {
+    }
+
+    /** Logs, saplings, sticks and apples: what lumberjacks haul to the chest. */
+    public static boolean isLumberDeposit(ItemStack stack) {
+        return !stack.isEmpty() && (flags(stack.getItem()) & LUMBER_DEPOSIT) != 0;
+    }
+
+    public static boolean isCropDeposit(Item item) {
+        return (flags(item) & CROP_DEPOSIT) != 0;
+    }
+
+    /** Tags may have changed; classify everything again on next use. */
+    public static void onTagsUpdated() {
+        FLAGS.clear();
+    }
+
+    private static int flags(Item item) {
+        int flags = FLAGS.getInt(item);
+        if (flags < 0) {
+            flags = classify(item);
+            FLAGS.put(item, flags);
+        }
+        return flags;
+    }
+
+    private static int classify(Item item) {
+        ItemStack stack = item.getDefaultInstance();
+        int flags = 0;
+
+        if (stack.is(ItemTags.LOGS) || stack.is(ItemTags.SAPLINGS) || stack.is(Items.STICK) || stack.is(Items.APPLE)) {
+            flags |= LUMBER_DEPOSIT;
+        }
+        if (CROP_DEPOSITS.contains(item)) {
+            flags |= CROP_DEPOSIT;
+        }
+        return flags;
+    }
+}
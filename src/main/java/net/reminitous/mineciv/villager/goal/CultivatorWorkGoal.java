@@ -1,22 +1,42 @@
 package net.reminitous.mineciv.villager.goal;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.npc.Villager;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.CropBlock;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.items.IItemHandler;
-import net.minecraftforge.items.ItemHandlerHelper;
+import net.reminitous.mineciv.ai.AiBudget;
+import net.reminitous.mineciv.ai.AiLod;
+import net.reminitous.mineciv.ai.GoalScheduler;
+import net.reminitous.mineciv.ai.NavigationHelper;
+import net.reminitous.mineciv.ai.WorkReservations;
+import net.reminitous.mineciv.block.entity.MonumentBlockEntity;
+import net.reminitous.mineciv.block.entity.MonumentRegistry;
+import net.reminitous.mineciv.civ.CivilizationType;
 import net.reminitous.mineciv.villager.ModVillagers;
+import net.reminitous.mineciv.villager.VillagerInventorySummary;
+import net.reminitous.mineciv.villager.WorkItems;
+import net.reminitous.mineciv.world.BulkInsert;
+import net.reminitous.mineciv.world.ContainerIndex;
+import net.reminitous.mineciv.world.CropTracker;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.EnumSet;
+import java.util.List;
 
 public class CultivatorWorkGoal extends Goal {
     private final Villager villager;
@@ -26,44 +46,64 @@ public class CultivatorWorkGoal extends Goal {
     private enum Mode { HARVEST, DEPOSIT }
     private Mode mode = Mode.HARVEST;
 
-    @Nullable private BlockPos targetCrop;
+    // Crops to harvest this run, in walking order; the head is the current target
+    private final Deque<BlockPos> harvestRoute = new ArrayDeque<>();
+    private int repathAttempts = 0;
     @Nullable private BlockPos targetContainer;
 
     // Tweak these
     private static final int SEARCH_RADIUS = 10;
     private static final int DEPOSIT_RADIUS = 10;
     private static final int COOLDOWN_TICKS = 40;
-
-    // What items we deposit
-    private static final Item[] DEPOSIT_WHITELIST = new Item[] {
-            net.minecraft.world.item.Items.WHEAT,
-            net.minecraft.world.item.Items.CARROT,
-            net.minecraft.world.item.Items.POTATO,
-            net.minecraft.world.item.Items.BEETROOT,
-            net.minecraft.world.item.Items.WHEAT_SEEDS,
-            net.minecraft.world.item.Items.BEETROOT_SEEDS,
-            net.minecraft.world.item.Items.MELON_SEEDS,
-            net.minecraft.world.item.Items.PUMPKIN_SEEDS
-    };
+    private static final int MONUMENT_VERTICAL_RADIUS = 4;
+    private static final int CROP_LEASE_TICKS = 200;
+    private static final int HARVEST_BATCH_SIZE = 16;
+    private static final double HARVEST_REACH_SQR = 2.5;
+    private static final int MAX_REPATH_ATTEMPTS = 2;
+    private static final int COARSE_WORK_INTERVAL_TICKS = 400;
+    private static final int CHEST_LEASE_TICKS = 100;
 
     public CultivatorWorkGoal(Villager villager) {
         this.villager = villager;
         this.setFlags(EnumSet.of(Flag.MOVE, Flag.LOOK));
+        this.cooldown = GoalScheduler.phaseOffset(villager, COOLDOWN_TICKS);
     }
 
     @Override
     public boolean canUse() {
+        long started = AiBudget.begin(villager);
+        try {
+            return checkCanUse();
+        } finally {
+            AiBudget.end(started);
+        }
+    }
+
+    private boolean checkCanUse() {
         if (cooldown-- > 0) return false;
 
         // Only run for your profession
         if (villager.getVillagerData().getProfession() != ModVillagers.CULTIVATOR.get()) {
-            cooldown = COOLDOWN_TICKS;
+            cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
             return false;
         }
 
         // If you want to obey mobGriefing for harvesting/replanting:
         if (!villager.level().getGameRules().getBoolean(GameRules.RULE_MOBGRIEFING)) {
-            cooldown = COOLDOWN_TICKS;
+            cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
+            return false;
+        }
+
+        // The searches below are the expensive part; take a slot in this tick's scan budget
+        if (!GoalScheduler.tryStartScan(villager)) {
+            cooldown = GoalScheduler.deferTicks(villager);
+            return false;
+        }
+
+        // Out of every player's sight: harvest in place on a slow timer instead of walking the field
+        if (AiLod.isFar(villager)) {
+            harvestCoarse();
+            cooldown = AiBudget.scaleCooldown(COARSE_WORK_INTERVAL_TICKS);
             return false;
         }
 
@@ -71,15 +111,18 @@ public class CultivatorWorkGoal extends Goal {
         if (shouldDeposit()) {
             mode = Mode.DEPOSIT;
             targetContainer = findNearestItemHandler(villager.blockPosition(), DEPOSIT_RADIUS);
-            if (targetContainer != null) return true;
+            if (targetContainer != null) {
+                WorkReservations.tryReserve(villager, WorkReservations.Kind.CHEST, targetContainer.asLong(), CHEST_LEASE_TICKS);
+                return true;
+            }
             // no chest found -> fall back to harvesting
             mode = Mode.HARVEST;
         }
 
         mode = Mode.HARVEST;
-        targetCrop = findMatureCrop(villager.blockPosition(), SEARCH_RADIUS);
-        if (targetCrop == null) {
-            cooldown = COOLDOWN_TICKS;
+        planHarvestRoute(villager.blockPosition(), SEARCH_RADIUS);
+        if (harvestRoute.isEmpty()) {
+            cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
             return false;
         }
         return true;
@@ -87,35 +130,80 @@ public class CultivatorWorkGoal extends Goal {
 
     @Override
     public void start() {
-        if (mode == Mode.HARVEST && targetCrop != null) {
-            villager.getNavigation().moveTo(targetCrop.getX() + 0.5, targetCrop.getY(), targetCrop.getZ() + 0.5, 1.0);
+        if (mode == Mode.HARVEST && !harvestRoute.isEmpty()) {
+            moveToCrop(harvestRoute.peekFirst());
         } else if (mode == Mode.DEPOSIT && targetContainer != null) {
-            villager.getNavigation().moveTo(targetContainer.getX() + 0.5, targetContainer.getY(), targetContainer.getZ() + 0.5, 1.0);
+            NavigationHelper.moveTo(villager, targetContainer, 1.0);
         }
     }
 
     @Override
     public boolean canContinueToUse() {
-        return (mode == Mode.HARVEST && targetCrop != null)
+        return (mode == Mode.HARVEST && !harvestRoute.isEmpty())
                 || (mode == Mode.DEPOSIT && targetContainer != null);
     }
 
+    @Override
+    public void stop() {
+        for (BlockPos crop : harvestRoute) {
+            WorkReservations.release(villager, WorkReservations.Kind.CROP, crop.asLong());
+        }
+        harvestRoute.clear();
+        if (targetContainer != null) {
+            WorkReservations.release(villager, WorkReservations.Kind.CHEST, targetContainer.asLong());
+            targetContainer = null;
+        }
+    }
+
     @Override
     public void tick() {
-        if (mode == Mode.HARVEST && targetCrop != null) {
-            if (villager.distanceToSqr(targetCrop.getX() + 0.5, targetCrop.getY(), targetCrop.getZ() + 0.5) < 2.5) {
-                harvestAndReplant(targetCrop);
-                targetCrop = null;
-                cooldown = COOLDOWN_TICKS;
+        long started = AiBudget.begin(villager);
+        try {
+            tickWork();
+        } finally {
+            AiBudget.end(started);
+        }
+    }
+
+    private void tickWork() {
+        if (mode == Mode.HARVEST && !harvestRoute.isEmpty()) {
+            BlockPos crop = harvestRoute.peekFirst();
+            if (!isInReach(crop)) {
+                // Stopped short or lost the path: retry a couple of times, then skip the crop
+                if (villager.getNavigation().isDone()) {
+                    if (repathAttempts < MAX_REPATH_ATTEMPTS) {
+                        // A repeat the helper dropped isn't a try; ask again next tick
+                        if (moveToCrop(crop)) repathAttempts++;
+                        return;
+                    }
+                } else {
+                    return;
+                }
+            } else {
+                harvestAndReplant(crop);
             }
+
+            WorkReservations.release(villager, WorkReservations.Kind.CROP, crop.asLong());
+            harvestRoute.pollFirst();
+            repathAttempts = 0;
+
+            if (harvestRoute.isEmpty()) {
+                cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
+                return;
+            }
+
+            // Neighbouring crops are often harvestable from where we stand
+            BlockPos next = harvestRoute.peekFirst();
+            if (!isInReach(next)) moveToCrop(next);
             return;
         }
 
         if (mode == Mode.DEPOSIT && targetContainer != null) {
             if (villager.distanceToSqr(targetContainer.getX() + 0.5, targetContainer.getY(), targetContainer.getZ() + 0.5) < 3.0) {
                 depositWhitelistToContainer(targetContainer);
+                WorkReservations.release(villager, WorkReservations.Kind.CHEST, targetContainer.asLong());
                 targetContainer = null;
-                cooldown = COOLDOWN_TICKS;
+                cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
             }
         }
     }
@@ -143,36 +231,124 @@ public class CultivatorWorkGoal extends Goal {
         }
     }
 
-    private boolean removeOneFromInventory(Item item) {
-        var inv = villager.getInventory();
-        for (int i = 0; i < inv.getContainerSize(); i++) {
-            ItemStack stack = inv.getItem(i);
-            if (!stack.isEmpty() && stack.is(item)) {
-                stack.shrink(1);
-                return true;
+    /**
+     * Low-detail harvest for villagers far from players: up to one batch of ripe crops around the villager
+     * is harvested and replanted where it stands, and the output goes straight to the nearest container.
+     */
+    private void harvestCoarse() {
+        if (!(villager.level() instanceof ServerLevel level)) return;
+
+        BlockPos origin = villager.blockPosition();
+        BoundingBox box = new BoundingBox(origin.getX() - SEARCH_RADIUS, origin.getY() - 1, origin.getZ() - SEARCH_RADIUS,
+                origin.getX() + SEARCH_RADIUS, origin.getY() + 1, origin.getZ() + SEARCH_RADIUS);
+
+        LongArrayList crops = new LongArrayList();
+        CropTracker.collect(level, box,
+                p -> WorkReservations.isReservedByOther(villager, WorkReservations.Kind.CROP, p), crops);
+        if (crops.isEmpty()) return;
+
+        BlockPos container = findNearestItemHandler(origin, DEPOSIT_RADIUS);
+
+        for (int i = 0; i < crops.size() && i < HARVEST_BATCH_SIZE; i++) {
+            BlockPos pos = BlockPos.of(crops.getLong(i));
+            BlockState state = level.getBlockState(pos);
+            if (!(state.getBlock() instanceof CropBlock crop) || !crop.isMaxAge(state)) continue;
+
+            Item seed = crop.getCloneItemStack(level, pos, state).getItem();
+            List<ItemStack> drops = Block.getDrops(state, level, pos, null, villager, ItemStack.EMPTY);
+
+            // Replant from the harvest itself, then from the villager's pockets
+            boolean replanted = false;
+            for (ItemStack drop : drops) {
+                if (drop.is(seed)) {
+                    drop.shrink(1);
+                    replanted = true;
+                    break;
+                }
+            }
+            if (!replanted) replanted = removeOneFromInventory(seed);
+
+            level.setBlock(pos, replanted ? crop.getStateForAge(0) : Blocks.AIR.defaultBlockState(), 3);
+
+            for (ItemStack drop : drops) {
+                AiLod.creditOutput(villager, container, drop);
             }
         }
-        return false;
     }
 
-    @Nullable
-    private BlockPos findMatureCrop(BlockPos origin, int r) {
-        Level level = villager.level();
-        BlockPos best = null;
-        double bestDist = Double.MAX_VALUE;
+    private boolean removeOneFromInventory(Item item) {
+        int slot = VillagerInventorySummary.of(villager).slotOf(item);
+        if (slot < 0) return false;
 
-        for (BlockPos pos : BlockPos.betweenClosed(origin.offset(-r, -1, -r), origin.offset(r, 1, r))) {
-            BlockState state = level.getBlockState(pos);
-            if (!(state.getBlock() instanceof CropBlock crop)) continue;
-            if (!crop.isMaxAge(state)) continue;
+        var inv = villager.getInventory();
+        ItemStack stack = inv.getItem(slot);
+        if (stack.isEmpty() || !stack.is(item)) return false;
 
-            double d = pos.distSqr(origin);
-            if (d < bestDist) {
-                bestDist = d;
-                best = pos.immutable();
+        stack.shrink(1);
+        inv.setChanged();
+        return true;
+    }
+
+    /**
+     * Fills {@link #harvestRoute} with up to {@link #HARVEST_BATCH_SIZE} mature crops, each the nearest
+     * unvisited one to the previous, and reserves them so other cultivators plan around us.
+     */
+    private void planHarvestRoute(BlockPos origin, int r) {
+        harvestRoute.clear();
+        repathAttempts = 0;
+
+        BoundingBox box = new BoundingBox(origin.getX() - r, origin.getY() - 1, origin.getZ() - r,
+                origin.getX() + r, origin.getY() + 1, origin.getZ() + r);
+
+        // Skip crops another cultivator is already working through
+        LongArrayList candidates = new LongArrayList();
+        CropTracker.collect(villager.level(), box,
+                p -> WorkReservations.isReservedByOther(villager, WorkReservations.Kind.CROP, p), candidates);
+
+        int fromX = origin.getX();
+        int fromY = origin.getY();
+        int fromZ = origin.getZ();
+
+        while (harvestRoute.size() < HARVEST_BATCH_SIZE && !candidates.isEmpty()) {
+            int bestIndex = 0;
+            long bestDist = Long.MAX_VALUE;
+            for (int i = 0; i < candidates.size(); i++) {
+                long p = candidates.getLong(i);
+                long dx = BlockPos.getX(p) - fromX;
+                long dy = BlockPos.getY(p) - fromY;
+                long dz = BlockPos.getZ(p) - fromZ;
+                long d = dx * dx + dy * dy + dz * dz;
+                if (d < bestDist) {
+                    bestDist = d;
+                    bestIndex = i;
+                }
             }
+
+            // Swap-remove; candidate order doesn't matter
+            long next = candidates.getLong(bestIndex);
+            candidates.set(bestIndex, candidates.getLong(candidates.size() - 1));
+            candidates.removeLong(candidates.size() - 1);
+
+            if (!WorkReservations.tryReserve(villager, WorkReservations.Kind.CROP, next, CROP_LEASE_TICKS)) continue;
+
+            harvestRoute.addLast(BlockPos.of(next));
+            fromX = BlockPos.getX(next);
+            fromY = BlockPos.getY(next);
+            fromZ = BlockPos.getZ(next);
         }
-        return best;
+    }
+
+    private boolean isInReach(BlockPos crop) {
+        return villager.distanceToSqr(crop.getX() + 0.5, crop.getY(), crop.getZ() + 0.5) < HARVEST_REACH_SQR;
+    }
+
+    // True if a path was requested (see NavigationHelper#moveTo)
+    private boolean moveToCrop(BlockPos crop) {
+        // A batch can outlast a single lease, so extend the rest of the route as we go
+        for (BlockPos planned : harvestRoute) {
+            WorkReservations.tryReserve(villager, WorkReservations.Kind.CROP, planned.asLong(), CROP_LEASE_TICKS);
+        }
+        return NavigationHelper.moveTo(villager, crop, 1.0);
     }
 
     // -------------------------
@@ -181,21 +357,7 @@ public class CultivatorWorkGoal extends Goal {
 
     private boolean shouldDeposit() {
         // Simple rule: if carrying >= 16 of any deposit item
-        int count = 0;
-        var inv = villager.getInventory();
-        for (int i = 0; i < inv.getContainerSize(); i++) {
-            ItemStack s = inv.getItem(i);
-            if (s.isEmpty()) continue;
-            if (isDepositItem(s.getItem())) count += s.getCount();
-        }
-        return count >= 16;
-    }
-
-    private boolean isDepositItem(Item item) {
-        for (Item it : DEPOSIT_WHITELIST) {
-            if (item == it) return true;
-        }
-        return false;
+        return VillagerInventorySummary.of(villager).cropDepositCount() >= 16;
     }
 
     private void depositWhitelistToContainer(BlockPos containerPos) {
@@ -206,38 +368,30 @@ public class CultivatorWorkGoal extends Goal {
         if (!cap.isPresent()) return;
 
         IItemHandler handler = cap.orElseThrow(() -> new IllegalStateException("Missing ITEM_HANDLER capability"));
-        var inv = villager.getInventory();
-
-        for (int i = 0; i < inv.getContainerSize(); i++) {
-            ItemStack stack = inv.getItem(i);
-            if (stack.isEmpty()) continue;
-            if (!isDepositItem(stack.getItem())) continue;
-
-            ItemStack remainder = ItemHandlerHelper.insertItemStacked(handler, stack.copy(), false);
-            int inserted = stack.getCount() - remainder.getCount();
-            if (inserted > 0) stack.shrink(inserted);
-        }
 
-        be.setChanged();
+        int moved = BulkInsert.transfer(villager.getInventory(), stack -> WorkItems.isCropDeposit(stack.getItem()), handler);
+        if (moved > 0) be.setChanged();
     }
 
     @Nullable
     private BlockPos findNearestItemHandler(BlockPos origin, int r) {
         Level level = villager.level();
-        BlockPos best = null;
-        double bestDist = Double.MAX_VALUE;
-
-        for (BlockPos pos : BlockPos.betweenClosed(origin.offset(-r, -1, -r), origin.offset(r, 1, r))) {
-            BlockEntity be = level.getBlockEntity(pos);
-            if (be == null) continue;
-            if (!be.getCapability(ForgeCapabilities.ITEM_HANDLER, null).isPresent()) continue;
-
-            double d = pos.distSqr(origin);
-            if (d < bestDist) {
-                bestDist = d;
-                best = pos.immutable();
-            }
+
+        // The storage network of a nearby farm monument wins over any other container
+        MonumentBlockEntity monument = MonumentRegistry.findNearest(level, origin, r, MONUMENT_VERTICAL_RADIUS, CivilizationType.FARMER);
+        if (monument != null && monument.hasLinkedStorage()) {
+            BlockPos linked = monument.getStorage().findDepositTarget(villager.getInventory(),
+                    stack -> WorkItems.isCropDeposit(stack.getItem()));
+            if (linked != null) return linked;
         }
-        return best;
+
+        BoundingBox box = new BoundingBox(
+                origin.getX() - r, origin.getY() - 1, origin.getZ() - r,
+                origin.getX() + r, origin.getY() + 1, origin.getZ() + r
+        );
+        // Spread deposits over free containers; share one only if they're all taken
+        BlockPos free = ContainerIndex.findNearest(level, origin, box,
+                be -> !WorkReservations.isReservedByOther(villager, WorkReservations.Kind.CHEST, be.getBlockPos().asLong()));
+        return free != null ? free : ContainerIndex.findNearest(level, origin, box, null);
     }
 }
@@ -1,37 +1,50 @@
 package net.reminitous.mineciv.villager.goal;
 
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.tags.BlockTags;
-import net.minecraft.tags.ItemTags;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.npc.Villager;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.Items;
 import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.common.ToolActions;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.items.IItemHandler;
-import net.minecraftforge.items.ItemHandlerHelper;
-import net.reminitous.mineciv.block.ModBlocks;
+import net.reminitous.mineciv.ai.AiBudget;
+import net.reminitous.mineciv.ai.AiLod;
+import net.reminitous.mineciv.ai.GoalScheduler;
+import net.reminitous.mineciv.ai.NavigationHelper;
+import net.reminitous.mineciv.ai.WorkReservations;
 import net.reminitous.mineciv.block.entity.MonumentBlockEntity;
+import net.reminitous.mineciv.block.entity.MonumentRegistry;
 import net.reminitous.mineciv.civ.CivilizationType;
 import net.reminitous.mineciv.villager.ModVillagers;
+import net.reminitous.mineciv.villager.VillagerInventorySummary;
+import net.reminitous.mineciv.villager.WorkItems;
+import net.reminitous.mineciv.world.BulkInsert;
+import net.reminitous.mineciv.world.ContainerIndex;
+import net.reminitous.mineciv.world.DropIndex;
+import net.reminitous.mineciv.world.LogIndex;
 
 import javax.annotation.Nullable;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -42,21 +55,40 @@ public class LumberjackWorkGoal extends Goal {
     private static final int SEARCH_RADIUS = 16;
     private static final int COOLDOWN_TICKS = 40;
 
-    private static final int CHOP_DISTANCE_SQR = 3;
+    private static final double CHOP_REACH_SQR = 4.5 * 4.5; // player reach, from the eyes
+    private static final int STAND_SEARCH_RADIUS = 2;
+    private static final int STAND_SEARCH_DEPTH = 8;
+    private static final int MAX_SPOT_ATTEMPTS = 2;
+    // How long a log we couldn't reach is left alone
+    private static final int GIVE_UP_TICKS = 1200;
     private static final int CHEST_USE_DISTANCE_SQR = 4;
+    // Handler calls per tick while depositing; a double chest fits in one tick
+    private static final int DEPOSIT_OPS_PER_TICK = 256;
 
     private static final int ITEM_SWEEP_INTERVAL_TICKS = 40;   // 2s
     private static final int DEPOSIT_CHECK_INTERVAL_TICKS = 20; // 1s
+    // Wait before looking for a tree again when the chunk had none
+    private static final int TREE_RETRY_TICKS = 40;
 
     // Tree-felling limits (prevents runaway on giant player builds)
     private static final int MAX_LOGS_PER_TREE = 128;
 
+    private static final int TREE_LEASE_TICKS = 400;
+    private static final int CHEST_LEASE_TICKS = 200;
+    private static final int COARSE_WORK_INTERVAL_TICKS = 600;
+
     private int cooldown = 0;
     private int itemSweepTimer = 0;
     private int depositCheckTimer = 0;
+    private int treeScanTimer = 0;
+
+    // Low-detail mode while no player is near
+    private boolean coarse = false;
+    private int coarseTimer = 0;
 
     @Nullable private BlockPos monumentPos;
     @Nullable private BlockPos currentChestTarget;
+    @Nullable private BulkInsert.Job depositJob;
 
     private enum Mode { CHOP, DEPOSIT }
     private Mode mode = Mode.CHOP;
@@ -66,26 +98,40 @@ public class LumberjackWorkGoal extends Goal {
 
     // Timed chopping state
     @Nullable private BlockPos breakTarget;
+    @Nullable private BlockPos standSpot;
+    private int spotAttempts = 0;
+    // Logs given up as unreachable -> game time they become eligible again
+    private final Long2LongOpenHashMap givenUp = new Long2LongOpenHashMap();
     private int breakProgressTicks = 0;
     private int breakTicksNeeded = 0;
 
     public LumberjackWorkGoal(Villager villager) {
         this.villager = villager;
         this.setFlags(EnumSet.of(Flag.MOVE, Flag.LOOK));
+        this.cooldown = GoalScheduler.phaseOffset(villager, COOLDOWN_TICKS);
     }
 
     @Override
     public boolean canUse() {
+        long started = AiBudget.begin(villager);
+        try {
+            return checkCanUse();
+        } finally {
+            AiBudget.end(started);
+        }
+    }
+
+    private boolean checkCanUse() {
         if (cooldown-- > 0) return false;
 
         if (villager.getVillagerData().getProfession() != ModVillagers.LUMBERJACK.get()) {
-            cooldown = COOLDOWN_TICKS;
+            cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
             return false;
         }
 
         monumentPos = findNearestLumberjackMonument(villager.blockPosition(), SEARCH_RADIUS);
         if (monumentPos == null) {
-            cooldown = COOLDOWN_TICKS;
+            cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
             return false;
         }
 
@@ -93,7 +139,7 @@ public class LumberjackWorkGoal extends Goal {
         if (hasDepositables()) {
             BlockPos chest = findChestInMonumentChunk(monumentPos);
             if (chest != null) {
-                currentChestTarget = chest;
+                setChestTarget(chest);
                 mode = Mode.DEPOSIT;
                 return true;
             }
@@ -108,10 +154,20 @@ public class LumberjackWorkGoal extends Goal {
         return monumentPos != null;
     }
 
+    @Override
+    public void stop() {
+        setChestTarget(null);
+        releaseTree();
+        breakProgressTicks = 0;
+        breakTicksNeeded = 0;
+    }
+
     @Override
     public void start() {
-        itemSweepTimer = 0;
-        depositCheckTimer = 0;
+        // Stagger the periodic checks so lumberjacks that start together don't run them on the same tick
+        itemSweepTimer = GoalScheduler.phaseOffset(villager, ITEM_SWEEP_INTERVAL_TICKS);
+        depositCheckTimer = GoalScheduler.phaseOffset(villager, DEPOSIT_CHECK_INTERVAL_TICKS);
+        treeScanTimer = 0;
 
         // On start, try to equip an axe if present
         equipBestAxeFromInventory();
@@ -123,6 +179,15 @@ public class LumberjackWorkGoal extends Goal {
 
     @Override
     public void tick() {
+        long started = AiBudget.begin(villager);
+        try {
+            tickWork();
+        } finally {
+            AiBudget.end(started);
+        }
+    }
+
+    private void tickWork() {
         if (monumentPos == null) return;
 
         Level level = villager.level();
@@ -133,17 +198,28 @@ public class LumberjackWorkGoal extends Goal {
             return;
         }
 
+        // Out of every player's sight: no walking, sweeping or timed breaking, just whole trees on a slow timer
+        if (AiLod.isFar(villager)) {
+            tickCoarse();
+            return;
+        }
+        coarse = false;
+
         // Periodically sweep the chunk for drops (including axes so the villager can use them)
         if (--itemSweepTimer <= 0) {
-            itemSweepTimer = ITEM_SWEEP_INTERVAL_TICKS;
-            if (level instanceof ServerLevel serverLevel) {
-                sweepChunkItems(serverLevel, monumentPos);
+            if (!GoalScheduler.tryStartScan(villager)) {
+                itemSweepTimer = GoalScheduler.deferTicks(villager);
+            } else {
+                itemSweepTimer = AiBudget.scaleCooldown(ITEM_SWEEP_INTERVAL_TICKS);
+                if (level instanceof ServerLevel serverLevel) {
+                    sweepChunkItems(serverLevel, monumentPos);
+                }
             }
         }
 
         // Periodically decide whether to deposit
         if (--depositCheckTimer <= 0) {
-            depositCheckTimer = DEPOSIT_CHECK_INTERVAL_TICKS;
+            depositCheckTimer = AiBudget.scaleCooldown(DEPOSIT_CHECK_INTERVAL_TICKS);
 
             // Re-equip best axe if we picked one up
             equipBestAxeFromInventory();
@@ -151,12 +227,12 @@ public class LumberjackWorkGoal extends Goal {
             if (hasDepositables()) {
                 BlockPos chest = findChestInMonumentChunk(monumentPos);
                 if (chest != null) {
-                    currentChestTarget = chest;
+                    setChestTarget(chest);
                     mode = Mode.DEPOSIT;
                 }
             } else if (mode == Mode.DEPOSIT) {
                 mode = Mode.CHOP;
-                currentChestTarget = null;
+                setChestTarget(null);
             }
         }
 
@@ -175,41 +251,55 @@ public class LumberjackWorkGoal extends Goal {
         Level level = villager.level();
 
         // If we’re not currently working a tree, find a new one and build a queue
-        if (treeLogQueue.isEmpty()) {
+        if (treeLogQueue.isEmpty() && breakTarget == null) {
+            // No tree last time: don't ask for a scan slot again until the retry timer runs out
+            if (--treeScanTimer > 0) return;
+
+            // Picking and flood-filling a tree counts against the scan budget
+            if (!GoalScheduler.tryStartScan(villager)) {
+                treeScanTimer = GoalScheduler.deferTicks(villager);
+                return;
+            }
+
             BlockPos startLog = findAnyLogInMonumentChunk(monumentPos);
-            if (startLog == null) return;
+            if (startLog != null) {
+                buildTreeQueueFrom(startLog, level);
+            }
+            // Nothing to chop (or nothing queued, weird): back off, staggered so idle lumberjacks don't retry together
+            if (treeLogQueue.isEmpty()) {
+                treeScanTimer = AiBudget.scaleCooldown(TREE_RETRY_TICKS) + GoalScheduler.phaseOffset(villager, TREE_RETRY_TICKS);
+                return;
+            }
+        }
 
-            buildTreeQueueFrom(startLog, level);
-            // If nothing queued (weird), bail out
-            if (treeLogQueue.isEmpty()) return;
+        // Someone else got to the log first
+        if (breakTarget != null && !level.getBlockState(breakTarget).is(BlockTags.LOGS)) {
+            WorkReservations.release(villager, WorkReservations.Kind.TREE, breakTarget.asLong());
+            breakTarget = null;
         }
 
-        // If we’re not currently breaking a block, set next target
+        // If we’re not currently breaking a block, take the next log we can reach from here
         if (breakTarget == null) {
-            breakTarget = nextValidQueuedLog(level);
+            breakTarget = pollLogInReach(level);
             if (breakTarget == null) {
-                // queue exhausted
-                treeLogQueue.clear();
+                if (treeLogQueue.isEmpty()) {
+                    // tree done
+                    releaseTree();
+                } else {
+                    walkToStandSpot(level);
+                }
                 return;
             }
             breakProgressTicks = 0;
             breakTicksNeeded = computeTicksToBreak(level, breakTarget);
 
+            // Keep the rest of the tree ours while we work through it
+            renewTreeLeases();
+
             // If the villager has an axe, damage it once per log (at start of the log)
             damageEquippedAxeIfPresent();
         }
 
-        // Move close to the break target
-        double dist = villager.distanceToSqr(
-                breakTarget.getX() + 0.5,
-                breakTarget.getY() + 0.5,
-                breakTarget.getZ() + 0.5
-        );
-        if (dist > CHOP_DISTANCE_SQR) {
-            moveTo(breakTarget);
-            return;
-        }
-
         // “Chopping” animation
         villager.swing(InteractionHand.MAIN_HAND);
 
@@ -219,28 +309,188 @@ public class LumberjackWorkGoal extends Goal {
         // Done? Break it
         if (villager.level() instanceof ServerLevel serverLevel && breakProgressTicks >= breakTicksNeeded) {
             serverLevel.destroyBlock(breakTarget, true, villager);
+            WorkReservations.release(villager, WorkReservations.Kind.TREE, breakTarget.asLong());
 
             // Vacuum nearby depositables; chunk sweep handles far drops
             suckUpNearbyItems(serverLevel, breakTarget);
 
             // Reset to next log
             breakTarget = null;
+            spotAttempts = 0;
         }
     }
 
+    // =========================
+    // Low-detail mode
+    // =========================
+
+    /**
+     * Fells one whole tree in the monument chunk every {@link #COARSE_WORK_INTERVAL_TICKS} and credits the
+     * drops to the chunk's chest, as if the villager had chopped, gathered and deposited them.
+     */
+    private void tickCoarse() {
+        if (!coarse) {
+            // Drop whatever the full simulation was in the middle of
+            coarse = true;
+            coarseTimer = GoalScheduler.phaseOffset(villager, COARSE_WORK_INTERVAL_TICKS);
+            NavigationHelper.stop(villager);
+            setChestTarget(null);
+            releaseTree();
+            mode = Mode.CHOP;
+        }
+
+        if (--coarseTimer > 0) return;
+        if (!(villager.level() instanceof ServerLevel level)) return;
+
+        if (!GoalScheduler.tryStartScan(villager)) {
+            coarseTimer = GoalScheduler.deferTicks(villager);
+            return;
+        }
+        coarseTimer = AiBudget.scaleCooldown(COARSE_WORK_INTERVAL_TICKS);
+
+        BlockPos startLog = findAnyLogInMonumentChunk(monumentPos);
+        if (startLog == null) return;
+
+        buildTreeQueueFrom(startLog, level);
+        BlockPos chest = findChestInMonumentChunk(monumentPos);
+
+        for (BlockPos log : treeLogQueue) {
+            BlockState state = level.getBlockState(log);
+            if (!state.is(BlockTags.LOGS)) continue;
+
+            List<ItemStack> drops = Block.getDrops(state, level, log, null, villager, villager.getItemBySlot(EquipmentSlot.MAINHAND));
+            level.removeBlock(log, false);
+            damageEquippedAxeIfPresent();
+
+            for (ItemStack drop : drops) {
+                AiLod.creditOutput(villager, chest, drop);
+            }
+        }
+        releaseTree();
+    }
+
+    /**
+     * Removes and returns the first queued log within reach of where the villager stands.
+     * Logs that are gone (or were never valid) are dropped on the way.
+     */
     @Nullable
-    private BlockPos nextValidQueuedLog(Level level) {
-        while (!treeLogQueue.isEmpty()) {
-            BlockPos p = treeLogQueue.pollFirst();
-            if (p == null) continue;
-            if (!isInSameChunk(p, monumentPos)) continue;
-            if (level.getBlockState(p).is(BlockTags.LOGS)) return p;
+    private BlockPos pollLogInReach(Level level) {
+        Vec3 eyes = villager.getEyePosition();
+
+        Iterator<BlockPos> it = treeLogQueue.iterator();
+        while (it.hasNext()) {
+            BlockPos p = it.next();
+            if (!isInSameChunk(p, monumentPos) || !level.getBlockState(p).is(BlockTags.LOGS)) {
+                it.remove();
+                WorkReservations.release(villager, WorkReservations.Kind.TREE, p.asLong());
+                continue;
+            }
+            if (eyes.distanceToSqr(Vec3.atCenterOf(p)) <= CHOP_REACH_SQR) {
+                it.remove();
+                return p;
+            }
         }
         return null;
     }
 
+    /**
+     * Nothing is in reach: walk to a spot next to the closest remaining log. A path is only requested
+     * when the spot changes, or to retry a spot we never arrived at.
+     */
+    private void walkToStandSpot(Level level) {
+        // Still on the way
+        if (standSpot != null && !villager.getNavigation().isDone()) return;
+
+        BlockPos target = nearestQueuedLog();
+        if (target == null) return;
+
+        BlockPos spot = findStandSpot(level, target);
+        if (!spot.equals(standSpot)) {
+            standSpot = spot;
+            spotAttempts = 0;
+            moveTo(spot);
+            return;
+        }
+
+        // Same spot as before and still nothing in reach. If we are standing on it, the log is out of
+        // reach from the ground; otherwise the path fell short, so retry a couple of times first.
+        boolean arrived = villager.distanceToSqr(spot.getX() + 0.5, spot.getY(), spot.getZ() + 0.5) <= 2.0;
+        if (!arrived && spotAttempts < MAX_SPOT_ATTEMPTS) {
+            // A repeat the helper dropped isn't a try; ask again next tick
+            if (moveTo(spot)) spotAttempts++;
+            return;
+        }
+
+        // Give up on the log for a while, so neither the log index nor the flood fill hands it straight back
+        treeLogQueue.remove(target);
+        giveUp(target);
+        standSpot = null;
+        spotAttempts = 0;
+    }
+
+    private void giveUp(BlockPos log) {
+        long now = villager.level().getGameTime();
+        givenUp.long2LongEntrySet().removeIf(e -> e.getLongValue() <= now);
+        givenUp.put(log.asLong(), now + GIVE_UP_TICKS);
+        WorkReservations.release(villager, WorkReservations.Kind.TREE, log.asLong());
+    }
+
+    private boolean isGivenUp(long log) {
+        long until = givenUp.get(log);
+        return until != 0 && until > villager.level().getGameTime();
+    }
+
+    @Nullable
+    private BlockPos nearestQueuedLog() {
+        BlockPos best = null;
+        double bestDist = Double.MAX_VALUE;
+        for (BlockPos p : treeLogQueue) {
+            double d = villager.distanceToSqr(p.getX() + 0.5, p.getY() + 0.5, p.getZ() + 0.5);
+            if (d < bestDist) {
+                bestDist = d;
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Closest place to stand near {@code log}: a two-high air gap on solid ground in the columns around it,
+     * at or below the log. Falls back to the log itself and lets the navigator get as close as it can.
+     */
+    private BlockPos findStandSpot(Level level, BlockPos log) {
+        BlockPos best = null;
+        double bestDist = Double.MAX_VALUE;
+        BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+
+        for (int dx = -STAND_SEARCH_RADIUS; dx <= STAND_SEARCH_RADIUS; dx++) {
+            for (int dz = -STAND_SEARCH_RADIUS; dz <= STAND_SEARCH_RADIUS; dz++) {
+                for (int dy = 0; dy >= -STAND_SEARCH_DEPTH; dy--) {
+                    cursor.set(log.getX() + dx, log.getY() + dy, log.getZ() + dz);
+                    if (!isStandable(level, cursor)) continue;
+
+                    double d = villager.distanceToSqr(cursor.getX() + 0.5, cursor.getY(), cursor.getZ() + 0.5);
+                    if (d < bestDist) {
+                        bestDist = d;
+                        best = cursor.immutable();
+                    }
+                    break; // highest standable block in this column
+                }
+            }
+        }
+        return best != null ? best : log;
+    }
+
+    private boolean isStandable(Level level, BlockPos feet) {
+        BlockPos head = feet.above();
+        BlockPos ground = feet.below();
+        return level.getBlockState(feet).getCollisionShape(level, feet).isEmpty()
+                && level.getBlockState(head).getCollisionShape(level, head).isEmpty()
+                && level.getBlockState(ground).isFaceSturdy(level, ground, Direction.UP);
+    }
+
     private void buildTreeQueueFrom(BlockPos startLog, Level level) {
-        treeLogQueue.clear();
+        releaseTree();
 
         // Flood fill connected logs (6-direction) capped at MAX_LOGS_PER_TREE
         Deque<BlockPos> stack = new ArrayDeque<>();
@@ -253,8 +503,12 @@ public class LumberjackWorkGoal extends Goal {
             BlockPos p = stack.pop();
             if (!isInSameChunk(p, monumentPos)) continue;
             if (!level.getBlockState(p).is(BlockTags.LOGS)) continue;
+            // Logs another lumberjack holds belong to their tree; ones we gave up on are skipped but still
+            // connect the rest of the tree
+            boolean skip = isGivenUp(p.asLong());
+            if (!skip && !WorkReservations.tryReserve(villager, WorkReservations.Kind.TREE, p.asLong(), TREE_LEASE_TICKS)) continue;
 
-            treeLogQueue.addLast(p.immutable());
+            if (!skip) treeLogQueue.addLast(p.immutable());
 
             for (Direction dir : Direction.values()) {
                 BlockPos n = p.relative(dir);
@@ -319,7 +573,7 @@ public class LumberjackWorkGoal extends Goal {
 
     private void tickDeposit() {
         if (currentChestTarget == null) {
-            currentChestTarget = findChestInMonumentChunk(monumentPos);
+            setChestTarget(findChestInMonumentChunk(monumentPos));
             if (currentChestTarget == null) {
                 mode = Mode.CHOP;
                 return;
@@ -329,7 +583,7 @@ public class LumberjackWorkGoal extends Goal {
         Level level = villager.level();
         BlockEntity be = level.getBlockEntity(currentChestTarget);
         if (be == null) {
-            currentChestTarget = null;
+            setChestTarget(null);
             return;
         }
 
@@ -348,11 +602,11 @@ public class LumberjackWorkGoal extends Goal {
         if (handler == null) handler = be.getCapability(ForgeCapabilities.ITEM_HANDLER, null).orElse(null);
         if (handler == null) return;
 
-        depositAllDepositables(handler);
+        if (!depositAllDepositables(handler)) return;
 
         if (!hasDepositables()) {
             mode = Mode.CHOP;
-            currentChestTarget = null;
+            setChestTarget(null);
         }
     }
 
@@ -367,29 +621,16 @@ public class LumberjackWorkGoal extends Goal {
     private void equipBestAxeFromInventory() {
         var inv = villager.getInventory();
 
-        int bestSlot = -1;
-        float bestSpeed = 0.0f;
-
-        // Measure against a log blockstate as reference
-        BlockState referenceLog = Blocks.OAK_LOG.defaultBlockState();
-
-        for (int i = 0; i < inv.getContainerSize(); i++) {
-            ItemStack s = inv.getItem(i);
-            if (s.isEmpty()) continue;
-            if (!s.canPerformAction(ToolActions.AXE_DIG)) continue;
-
-            float speed = s.getDestroySpeed(referenceLog);
-            if (speed > bestSpeed) {
-                bestSpeed = speed;
-                bestSlot = i;
-            }
-        }
+        // Measured against a log blockstate as reference
+        VillagerInventorySummary summary = VillagerInventorySummary.of(villager);
+        int bestSlot = summary.bestAxeSlot();
+        float bestSpeed = summary.bestAxeSpeed();
 
         ItemStack current = villager.getItemBySlot(EquipmentSlot.MAINHAND);
 
         // If already holding an axe, keep it (unless we found a better one)
         if (!current.isEmpty() && current.canPerformAction(ToolActions.AXE_DIG)) {
-            float currentSpeed = current.getDestroySpeed(referenceLog);
+            float currentSpeed = VillagerInventorySummary.axeSpeed(current);
             if (bestSlot == -1 || currentSpeed >= bestSpeed) return;
         }
 
@@ -438,23 +679,14 @@ public class LumberjackWorkGoal extends Goal {
     // =========================
 
     private void sweepChunkItems(ServerLevel level, BlockPos monument) {
-        int minX = (monument.getX() >> 4) << 4;
-        int minZ = (monument.getZ() >> 4) << 4;
-        int maxX = minX + 16;
-        int maxZ = minZ + 16;
-
-        AABB box = new AABB(
-                minX, level.getMinBuildHeight(), minZ,
-                maxX, level.getMaxBuildHeight(), maxZ
-        );
-
         // Pick up:
         // - depositables (logs/saplings/sticks/apples)
         // - axes (so the villager can equip them)
-        List<ItemEntity> items = level.getEntitiesOfClass(ItemEntity.class, box,
-                e -> e.isAlive() && !e.getItem().isEmpty() && (isDepositable(e.getItem()) || isAxe(e.getItem())));
+        // DropIndex files them as they spawn, so this is a lookup rather than an entity search over the chunk column.
+        // Picked-up items leave the index, so lumberjacks sharing a monument never collect the same drop twice.
+        for (ItemEntity entity : DropIndex.itemsIn(level, monument.getX() >> 4, monument.getZ() >> 4)) {
+            if (!entity.isAlive() || !isWoodcuttingPickup(entity.getItem())) continue;
 
-        for (ItemEntity entity : items) {
             ItemStack stack = entity.getItem().copy();
             ItemStack remaining = addToVillagerInventory(stack);
 
@@ -489,6 +721,10 @@ public class LumberjackWorkGoal extends Goal {
     }
 
     private ItemStack addToVillagerInventory(ItemStack stack) {
+        // Full, and no stack of this item to top up
+        VillagerInventorySummary summary = VillagerInventorySummary.of(villager);
+        if (summary.firstFreeSlot() < 0 && summary.slotOf(stack.getItem()) < 0) return stack;
+
         var inv = villager.getInventory();
 
         for (int i = 0; i < inv.getContainerSize(); i++) {
@@ -512,60 +748,50 @@ public class LumberjackWorkGoal extends Goal {
     }
 
     private boolean hasDepositables() {
-        var inv = villager.getInventory();
-        for (int i = 0; i < inv.getContainerSize(); i++) {
-            ItemStack s = inv.getItem(i);
-            if (!s.isEmpty() && isDepositable(s)) return true;
-        }
-        return false;
+        return VillagerInventorySummary.of(villager).lumberDepositCount() > 0;
     }
 
-    private boolean isDepositable(ItemStack stack) {
-        return stack.is(ItemTags.LOGS)
-                || stack.is(ItemTags.SAPLINGS)
-                || stack.is(Items.STICK)
-                || stack.is(Items.APPLE);
+    /** Items a lumberjack collects from the ground. Also decides what {@link DropIndex} tracks. */
+    public static boolean isWoodcuttingPickup(ItemStack stack) {
+        return !stack.isEmpty() && (isDepositable(stack) || isAxe(stack));
     }
 
-    private boolean isAxe(ItemStack stack) {
-        return stack.canPerformAction(ToolActions.AXE_DIG);
+    private static boolean isDepositable(ItemStack stack) {
+        return WorkItems.isLumberDeposit(stack);
     }
 
-    private void depositAllDepositables(IItemHandler handler) {
-        var inv = villager.getInventory();
-
-        for (int i = 0; i < inv.getContainerSize(); i++) {
-            ItemStack s = inv.getItem(i);
-            if (s.isEmpty() || !isDepositable(s)) continue;
-
-            ItemStack toInsert = s.copy();
-            ItemStack remainder = ItemHandlerHelper.insertItemStacked(handler, toInsert, false);
+    private static boolean isAxe(ItemStack stack) {
+        return stack.canPerformAction(ToolActions.AXE_DIG);
+    }
 
-            if (remainder.isEmpty()) {
-                inv.setItem(i, ItemStack.EMPTY);
-            } else if (remainder.getCount() != s.getCount()) {
-                inv.setItem(i, remainder);
-            }
+    /** Returns true once the deposit into {@code handler} has finished; large storage takes a few ticks. */
+    private boolean depositAllDepositables(IItemHandler handler) {
+        if (depositJob == null || depositJob.target() != handler) {
+            depositJob = new BulkInsert.Job(villager.getInventory(), LumberjackWorkGoal::isDepositable, handler);
         }
+        if (!depositJob.step(DEPOSIT_OPS_PER_TICK)) return false;
+
+        depositJob = null;
+        return true;
     }
 
     // =========================
     // Monument / chunk helpers
     // =========================
 
-    private void moveTo(BlockPos pos) {
-        villager.getNavigation().moveTo(pos.getX() + 0.5, pos.getY(), pos.getZ() + 0.5, 1.0);
+    // True if a path was requested (see NavigationHelper#moveTo)
+    private boolean moveTo(BlockPos pos) {
+        return NavigationHelper.moveTo(villager, pos, 1.0);
     }
 
     private void stopWithCooldown() {
-        villager.getNavigation().stop();
+        NavigationHelper.stop(villager);
         monumentPos = null;
-        currentChestTarget = null;
-        treeLogQueue.clear();
-        breakTarget = null;
+        setChestTarget(null);
+        releaseTree();
         breakProgressTicks = 0;
         breakTicksNeeded = 0;
-        cooldown = COOLDOWN_TICKS;
+        cooldown = AiBudget.scaleCooldown(COOLDOWN_TICKS);
     }
 
     private boolean isInSameChunk(BlockPos a, BlockPos b) {
@@ -576,85 +802,84 @@ public class LumberjackWorkGoal extends Goal {
     private BlockPos findAnyLogInMonumentChunk(BlockPos monument) {
         Level level = villager.level();
 
-        int minX = (monument.getX() >> 4) << 4;
-        int minZ = (monument.getZ() >> 4) << 4;
-        int maxX = minX + 15;
-        int maxZ = minZ + 15;
-
         int minY = Math.max(level.getMinBuildHeight(), monument.getY() - 24);
         int maxY = Math.min(level.getMaxBuildHeight() - 1, monument.getY() + 48);
 
-        // Simple scan; “any log” is fine because we then flood-fill the tree
-        for (int y = minY; y <= maxY; y++) {
-            for (int x = minX; x <= maxX; x++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    BlockPos p = new BlockPos(x, y, z);
-                    if (level.getBlockState(p).is(BlockTags.LOGS)) return p;
-                }
-            }
-        }
-
-        return null;
+        // “Any log” is fine because we then flood-fill the tree
+        return LogIndex.findAnyLog(level, monument.getX() >> 4, monument.getZ() >> 4, minY, maxY,
+                p -> isGivenUp(p) || WorkReservations.isReservedByOther(villager, WorkReservations.Kind.TREE, p));
     }
 
     @Nullable
     private BlockPos findNearestLumberjackMonument(BlockPos origin, int r) {
-        Level level = villager.level();
-
-        BlockPos best = null;
-        double bestDist = Double.MAX_VALUE;
-
-        for (BlockPos pos : BlockPos.betweenClosed(origin.offset(-r, -2, -r), origin.offset(r, 2, r))) {
-            if (level.getBlockState(pos).getBlock() != ModBlocks.MONUMENT_BLOCK.get()) continue;
-
-            BlockEntity be = level.getBlockEntity(pos);
-            if (!(be instanceof MonumentBlockEntity monumentBE)) continue;
-
-            // TODO: change to CivilizationType.LUMBERJACK when you add it
-            if (monumentBE.getCivType() != CivilizationType.FARMER) continue;
-
-            double d = pos.distSqr(origin);
-            if (d < bestDist) {
-                bestDist = d;
-                best = pos.immutable();
-            }
-        }
-
-        return best;
+        // TODO: change to CivilizationType.LUMBERJACK when you add it
+        MonumentBlockEntity monument = MonumentRegistry.findNearest(villager.level(), origin, r, 2, CivilizationType.FARMER);
+        return monument != null ? monument.getBlockPos() : null;
     }
 
     @Nullable
     private BlockPos findChestInMonumentChunk(BlockPos monument) {
         Level level = villager.level();
 
+        // The monument's storage network wins over any other chest
+        if (level.getBlockEntity(monument) instanceof MonumentBlockEntity monumentBE && monumentBE.hasLinkedStorage()) {
+            BlockPos linked = monumentBE.getStorage().findDepositTarget(villager.getInventory(), LumberjackWorkGoal::isDepositable);
+            if (linked != null) return linked;
+        }
+
         int minX = (monument.getX() >> 4) << 4;
         int minZ = (monument.getZ() >> 4) << 4;
-        int maxX = minX + 15;
-        int maxZ = minZ + 15;
 
         int minY = Math.max(level.getMinBuildHeight(), monument.getY() - 12);
         int maxY = Math.min(level.getMaxBuildHeight() - 1, monument.getY() + 12);
 
-        BlockPos best = null;
-        double bestDist = Double.MAX_VALUE;
+        BoundingBox chunkBox = new BoundingBox(minX, minY, minZ, minX + 15, maxY, minZ + 15);
 
-        for (int y = minY; y <= maxY; y++) {
-            for (int x = minX; x <= maxX; x++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    BlockPos p = new BlockPos(x, y, z);
-                    var state = level.getBlockState(p);
+        // Prefer a chest nobody else is unloading into; share one only if they're all taken
+        BlockPos free = ContainerIndex.findNearest(level, monument, chunkBox, be -> isChest(be)
+                && !WorkReservations.isReservedByOther(villager, WorkReservations.Kind.CHEST, be.getBlockPos().asLong()));
+        return free != null ? free : ContainerIndex.findNearest(level, monument, chunkBox, LumberjackWorkGoal::isChest);
+    }
 
-                    if (state.getBlock() != Blocks.CHEST && state.getBlock() != Blocks.TRAPPED_CHEST) continue;
+    private static boolean isChest(BlockEntity be) {
+        BlockState state = be.getBlockState();
+        return state.is(Blocks.CHEST) || state.is(Blocks.TRAPPED_CHEST);
+    }
 
-                    double d = p.distSqr(monument);
-                    if (d < bestDist) {
-                        bestDist = d;
-                        best = p.immutable();
-                    }
-                }
-            }
+    // =========================
+    // Work reservations
+    // =========================
+
+    private void setChestTarget(@Nullable BlockPos chest) {
+        if (currentChestTarget != null && !currentChestTarget.equals(chest)) {
+            WorkReservations.release(villager, WorkReservations.Kind.CHEST, currentChestTarget.asLong());
+        }
+        currentChestTarget = chest;
+        depositJob = null;
+        if (chest != null) {
+            WorkReservations.tryReserve(villager, WorkReservations.Kind.CHEST, chest.asLong(), CHEST_LEASE_TICKS);
         }
+    }
 
-        return best;
+    private void renewTreeLeases() {
+        if (breakTarget != null) {
+            WorkReservations.tryReserve(villager, WorkReservations.Kind.TREE, breakTarget.asLong(), TREE_LEASE_TICKS);
+        }
+        for (BlockPos log : treeLogQueue) {
+            WorkReservations.tryReserve(villager, WorkReservations.Kind.TREE, log.asLong(), TREE_LEASE_TICKS);
+        }
+    }
+
+    private void releaseTree() {
+        if (breakTarget != null) {
+            WorkReservations.release(villager, WorkReservations.Kind.TREE, breakTarget.asLong());
+            breakTarget = null;
+        }
+        for (BlockPos log : treeLogQueue) {
+            WorkReservations.release(villager, WorkReservations.Kind.TREE, log.asLong());
+        }
+        treeLogQueue.clear();
+        standSpot = null;
+        spotAttempts = 0;
     }
 }
@@ -0,0 +1,154 @@
+package net.reminitous.mineciv.world;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.function.Predicate;
+
+/**
+ * Moves many stacks from a container into an item handler in one pass.
+ * <p>
+ * {@code ItemHandlerHelper.insertItemStacked} walks every slot of the target for each stack it
+ * inserts, which adds up on double chests and large modded storage. A job reads the target once,
+ * remembering which slots hold partial stacks of each item and which are empty, and then places
+ * every stack straight into those slots.
+ * <p>
+ * The index is only a hint: {@link IItemHandler#insertItem} decides what actually fits, and the
+ * index is corrected from what it returns. Work is counted in handler calls, so a goal can spread a
+ * transfer into a very large inventory over several ticks with {@link Job#step(int)}.
+ */
+public final class BulkInsert {
+
+    private BulkInsert() {
+    }
+
+    /**
+     * Moves every stack in {@code source} accepted by {@code filter} into {@code target}, as far as
+     * it fits. Source stacks are shrunk in place. Returns the number of items moved.
+     */
+    public static int transfer(Container source, Predicate<ItemStack> filter, IItemHandler target) {
+        Job job = new Job(source, filter, target);
+        job.step(Integer.MAX_VALUE);
+        return job.moved();
+    }
+
+    /** A transfer that can be run a slice at a time. */
+    public static final class Job {
+        private final Container source;
+        private final Predicate<ItemStack> filter;
+        private final IItemHandler target;
+
+        // Target slots holding a stack that isn't full yet, by item
+        private final Reference2ObjectOpenHashMap<Item, IntArrayList> partial = new Reference2ObjectOpenHashMap<>();
+        private final IntArrayList empty = new IntArrayList();
+
+        private int indexCursor;
+        private int sourceCursor;
+        private int budget;
+        private int moved;
+
+        public Job(Container source, Predicate<ItemStack> filter, IItemHandler target) {
+            this.source = source;
+            this.filter = filter;
+            this.target = target;
+        }
+
+        public IItemHandler target() {
+            return target;
+        }
+
+        /** Items moved so far. */
+        public int moved() {
+            return moved;
+        }
+
+        public boolean isDone() {
+            return sourceCursor >= source.getContainerSize();
+        }
+
+        /**
+         * Does up to {@code maxOps} slot reads and inserts on the target. Returns true once every
+         * source slot has been handled.
+         */
+        public boolean step(int maxOps) {
+            budget = maxOps;
+            int movedBefore = moved;
+
+            int slots = target.getSlots();
+            while (indexCursor < slots) {
+                if (budget <= 0) return false;
+                budget--;
+                index(indexCursor++);
+            }
+
+            while (!isDone()) {
+                ItemStack stack = source.getItem(sourceCursor);
+                if (!stack.isEmpty() && filter.test(stack) && !place(stack)) break;
+                sourceCursor++;
+            }
+
+            if (moved != movedBefore) source.setChanged();
+            return isDone();
+        }
+
+        private void index(int slot) {
+            ItemStack there = target.getStackInSlot(slot);
+            if (there.isEmpty()) {
+                empty.add(slot);
+            } else if (there.getCount() < Math.min(there.getMaxStackSize(), target.getSlotLimit(slot))) {
+                partial.computeIfAbsent(there.getItem(), k -> new IntArrayList()).add(slot);
+            }
+        }
+
+        /** Returns false if the budget ran out before {@code stack} was fully handled. */
+        private boolean place(ItemStack stack) {
+            Item item = stack.getItem(); // an emptied stack reports air
+            IntArrayList slots = partial.get(item);
+            if (slots != null) {
+                for (int i = 0; i < slots.size() && !stack.isEmpty(); i++) {
+                    if (budget <= 0) return false;
+
+                    int slot = slots.getInt(i);
+                    if (!ItemStack.isSameItemSameComponents(target.getStackInSlot(slot), stack)) continue;
+
+                    budget--;
+                    if (!insert(slot, stack).isEmpty()) {
+                        // Full now (or never accepted it)
+                        slots.removeInt(i--);
+                    }
+                }
+            }
+
+            for (int i = 0; i < empty.size() && !stack.isEmpty(); i++) {
+                if (budget <= 0) return false;
+                budget--;
+
+                int slot = empty.getInt(i);
+                int before = stack.getCount();
+                ItemStack remainder = insert(slot, stack);
+                if (remainder.getCount() == before) continue; // this slot won't take this item
+
+                empty.removeInt(i--);
+                if (remainder.isEmpty()) {
+                    partial.computeIfAbsent(item, k -> new IntArrayList()).add(slot);
+                }
+            }
+            return true;
+        }
+
+        // Inserts into one slot and shrinks the source stack by what went in
+        private ItemStack insert(int slot, ItemStack stack) {
+            ItemStack remainder = target.insertItem(slot, stack.copy(), false);
+            int inserted = stack.getCount() - remainder.getCount();
+            if (inserted > 0) {
+                stack.shrink(inserted);
+                moved += inserted;
+            }
+            return remainder;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package net.reminitous.mineciv.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Per-level index of block entities that expose an item handler, bucketed by chunk.
+ * <p>
+ * A chunk is indexed lazily from its block entity map the first time someone asks (no block scan),
+ * dropped when the chunk unloads, and re-indexed after a block entity is placed in it.
+ * Removed containers are filtered out when read.
+ */
+public class ContainerIndex {
+    private static final Map<Level, ContainerIndex> INDEXES = new IdentityHashMap<>();
+
+    private final Long2ObjectOpenHashMap<List<BlockPos>> byChunk = new Long2ObjectOpenHashMap<>();
+
+    @Nullable
+    private static ContainerIndex of(LevelAccessor level, boolean create) {
+        if (!(level instanceof ServerLevel serverLevel)) return null;
+        return create ? INDEXES.computeIfAbsent(serverLevel, l -> new ContainerIndex()) : INDEXES.get(serverLevel);
+    }
+
+    public static boolean hasItemHandler(@Nullable BlockEntity be) {
+        return be != null && !be.isRemoved() && be.getCapability(ForgeCapabilities.ITEM_HANDLER, null).isPresent();
+    }
+
+    // --------------------
+    // Invalidation
+    // --------------------
+    public static void invalidate(LevelAccessor level, BlockPos pos) {
+        ContainerIndex index = of(level, false);
+        if (index == null) return;
+
+        index.byChunk.remove(ChunkPos.asLong(pos));
+    }
+
+    public static void onChunkUnload(LevelAccessor level, ChunkPos chunkPos) {
+        ContainerIndex index = of(level, false);
+        if (index == null) return;
+
+        index.byChunk.remove(chunkPos.toLong());
+    }
+
+    public static void onLevelUnload(Level level) {
+        INDEXES.remove(level);
+    }
+
+    // --------------------
+    // Queries
+    // --------------------
+
+    /**
+     * Nearest container inside {@code box} (block coordinates, inclusive) that passes {@code filter}.
+     */
+    @Nullable
+    public static BlockPos findNearest(Level level, BlockPos origin, BoundingBox box, @Nullable Predicate<BlockEntity> filter) {
+        ContainerIndex index = of(level, true);
+        if (index == null) return null;
+
+        BlockPos best = null;
+        double bestDist = Double.MAX_VALUE;
+
+        for (int cx = box.minX() >> 4; cx <= box.maxX() >> 4; cx++) {
+            for (int cz = box.minZ() >> 4; cz <= box.maxZ() >> 4; cz++) {
+                List<BlockPos> containers = index.chunkContainers(level, cx, cz);
+
+                for (BlockPos pos : containers) {
+                    if (!box.isInside(pos)) continue;
+
+                    double d = pos.distSqr(origin);
+                    if (d >= bestDist) continue;
+
+                    BlockEntity be = level.getBlockEntity(pos);
+                    if (!hasItemHandler(be)) continue;
+                    if (filter != null && !filter.test(be)) continue;
+
+                    bestDist = d;
+                    best = pos;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Containers in one loaded chunk (read-only). May include containers removed since the chunk
+     * was indexed; check {@link #hasItemHandler} before use.
+     */
+    public static List<BlockPos> containersIn(Level level, int chunkX, int chunkZ) {
+        ContainerIndex index = of(level, true);
+        if (index == null) return List.of();
+
+        return Collections.unmodifiableList(index.chunkContainers(level, chunkX, chunkZ));
+    }
+
+    private List<BlockPos> chunkContainers(Level level, int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        List<BlockPos> cached = byChunk.get(key);
+        if (cached != null) return cached;
+
+        // Never load chunks for an index lookup
+        LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+        if (chunk == null) return List.of();
+
+        List<BlockPos> containers = new ArrayList<>();
+        for (BlockEntity be : chunk.getBlockEntities().values()) {
+            if (hasItemHandler(be)) {
+                containers.add(be.getBlockPos().immutable());
+            }
+        }
+
+        byChunk.put(key, containers);
+        return containers;
+    }
+}
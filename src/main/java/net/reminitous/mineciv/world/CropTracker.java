@@ -0,0 +1,147 @@
+package net.reminitous.mineciv.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongPredicate;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.block.CropBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import javax.annotation.Nullable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Per-level set of fully grown crops, bucketed by chunk.
+ * <p>
+ * A chunk is seeded with one section scan the first time someone asks about it. After that it
+ * follows crop growth, bone meal and block changes, so finding a ready crop no longer re-reads
+ * the farm. Entries are checked against the world when read, and stale ones are dropped.
+ */
+public class CropTracker {
+    private static final Map<Level, CropTracker> TRACKERS = new IdentityHashMap<>();
+
+    // chunk key -> BlockPos#asLong of every mature crop in the chunk
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> byChunk = new Long2ObjectOpenHashMap<>();
+
+    @Nullable
+    private static CropTracker of(LevelAccessor level, boolean create) {
+        if (!(level instanceof ServerLevel serverLevel)) return null;
+        return create ? TRACKERS.computeIfAbsent(serverLevel, l -> new CropTracker()) : TRACKERS.get(serverLevel);
+    }
+
+    public static boolean isMatureCrop(BlockState state) {
+        return state.getBlock() instanceof CropBlock crop && crop.isMaxAge(state);
+    }
+
+    // --------------------
+    // Updates
+    // --------------------
+    public static void onBlockChanged(LevelAccessor level, BlockPos pos, BlockState newState) {
+        CropTracker tracker = of(level, false);
+        if (tracker == null) return;
+
+        LongOpenHashSet crops = tracker.byChunk.get(ChunkPos.asLong(pos));
+        if (crops == null) return; // chunk not seeded yet; it will be read fresh
+
+        if (isMatureCrop(newState)) {
+            crops.add(pos.asLong());
+        } else {
+            crops.remove(pos.asLong());
+        }
+    }
+
+    /**
+     * Bone meal is reported before it is applied, so the position is only recorded as a candidate
+     * and checked when read.
+     */
+    public static void onBonemeal(LevelAccessor level, BlockPos pos) {
+        CropTracker tracker = of(level, false);
+        if (tracker == null) return;
+
+        LongOpenHashSet crops = tracker.byChunk.get(ChunkPos.asLong(pos));
+        if (crops != null) {
+            crops.add(pos.asLong());
+        }
+    }
+
+    public static void onChunkUnload(LevelAccessor level, ChunkPos chunkPos) {
+        CropTracker tracker = of(level, false);
+        if (tracker == null) return;
+
+        tracker.byChunk.remove(chunkPos.toLong());
+    }
+
+    public static void onLevelUnload(Level level) {
+        TRACKERS.remove(level);
+    }
+
+    // --------------------
+    // Queries
+    // --------------------
+
+    /**
+     * Adds every mature crop inside {@code box} that {@code exclude} doesn't reject to {@code out},
+     * as BlockPos#asLong values.
+     */
+    public static void collect(Level level, BoundingBox box, @Nullable LongPredicate exclude, LongList out) {
+        CropTracker tracker = of(level, true);
+        if (tracker == null) return;
+
+        BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+
+        for (int cx = box.minX() >> 4; cx <= box.maxX() >> 4; cx++) {
+            for (int cz = box.minZ() >> 4; cz <= box.maxZ() >> 4; cz++) {
+                LongOpenHashSet crops = tracker.cropsIn(level, cx, cz);
+                if (crops == null) continue;
+
+                LongIterator it = crops.iterator();
+                while (it.hasNext()) {
+                    long packed = it.nextLong();
+                    cursor.set(packed);
+                    if (!box.isInside(cursor)) continue;
+                    if (exclude != null && exclude.test(packed)) continue;
+
+                    if (!isMatureCrop(level.getBlockState(cursor))) {
+                        it.remove();
+                        continue;
+                    }
+                    out.add(packed);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private LongOpenHashSet cropsIn(Level level, int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        LongOpenHashSet cached = byChunk.get(key);
+        if (cached != null) return cached;
+
+        // Never load chunks for a lookup
+        LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+        if (chunk == null) return null;
+
+        LongOpenHashSet crops = new LongOpenHashSet();
+        int baseX = chunkX << 4;
+        int baseZ = chunkZ << 4;
+        BoundingBox column = new BoundingBox(baseX, level.getMinBuildHeight(), baseZ,
+                baseX + 15, level.getMaxBuildHeight() - 1, baseZ + 15);
+
+        SectionScanner.scan(level, column, CropTracker::isMatureCrop, (pos, state) -> {
+            crops.add(pos.asLong());
+            return true;
+        });
+
+        byChunk.put(key, crops);
+        return crops;
+    }
+}
@@ -0,0 +1,129 @@
+package net.reminitous.mineciv.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.reminitous.mineciv.villager.goal.LumberjackWorkGoal;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-level index of dropped items villagers care about, bucketed by chunk.
+ * <p>
+ * Items are added when they join the level and removed when they leave it (picked up, merged,
+ * despawned or unloaded), so collecting the drops in a chunk is a set lookup instead of an entity
+ * search over the whole chunk column. Items drift while they fall or float; a query looks at the
+ * neighbouring buckets too, checks where each item actually is, and moves it to the right bucket.
+ */
+public class DropIndex {
+    private static final Map<Level, DropIndex> INDEXES = new IdentityHashMap<>();
+
+    private final Long2ObjectOpenHashMap<ReferenceOpenHashSet<ItemEntity>> byChunk = new Long2ObjectOpenHashMap<>();
+    // The bucket each item is currently filed under
+    private final Reference2LongOpenHashMap<ItemEntity> bucketOf = new Reference2LongOpenHashMap<>();
+
+    @Nullable
+    private static DropIndex of(LevelAccessor level, boolean create) {
+        if (!(level instanceof ServerLevel serverLevel)) return null;
+        return create ? INDEXES.computeIfAbsent(serverLevel, l -> new DropIndex()) : INDEXES.get(serverLevel);
+    }
+
+    /** Drops worth indexing: whatever a worker villager would pick up. */
+    public static boolean isInteresting(ItemEntity entity) {
+        return LumberjackWorkGoal.isWoodcuttingPickup(entity.getItem());
+    }
+
+    // --------------------
+    // Updates
+    // --------------------
+    public static void onItemJoin(LevelAccessor level, ItemEntity entity) {
+        if (!isInteresting(entity)) return;
+
+        DropIndex index = of(level, true);
+        if (index == null) return;
+
+        index.file(entity, entity.chunkPosition().toLong());
+    }
+
+    public static void onItemLeave(LevelAccessor level, ItemEntity entity) {
+        DropIndex index = of(level, false);
+        if (index == null) return;
+
+        index.unfile(entity);
+    }
+
+    public static void onLevelUnload(Level level) {
+        INDEXES.remove(level);
+    }
+
+    // --------------------
+    // Queries
+    // --------------------
+
+    /** Live indexed items currently inside the given chunk. */
+    public static List<ItemEntity> itemsIn(Level level, int chunkX, int chunkZ) {
+        DropIndex index = of(level, false);
+        if (index == null || index.bucketOf.isEmpty()) return List.of();
+
+        long target = ChunkPos.asLong(chunkX, chunkZ);
+        List<ItemEntity> result = new ArrayList<>();
+        List<ItemEntity> moved = new ArrayList<>();
+
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                long key = ChunkPos.asLong(chunkX + dx, chunkZ + dz);
+                ReferenceOpenHashSet<ItemEntity> items = index.byChunk.get(key);
+                if (items == null) continue;
+
+                Iterator<ItemEntity> it = items.iterator();
+                while (it.hasNext()) {
+                    ItemEntity entity = it.next();
+                    if (entity.isRemoved() || entity.getItem().isEmpty()) {
+                        it.remove();
+                        index.bucketOf.removeLong(entity);
+                        continue;
+                    }
+
+                    long actual = entity.chunkPosition().toLong();
+                    if (actual != key) moved.add(entity);
+                    if (actual == target) result.add(entity);
+                }
+                if (items.isEmpty()) index.byChunk.remove(key);
+            }
+        }
+
+        for (ItemEntity entity : moved) {
+            index.file(entity, entity.chunkPosition().toLong());
+        }
+        return result;
+    }
+
+    // --------------------
+    // Internals
+    // --------------------
+    private void file(ItemEntity entity, long chunk) {
+        unfile(entity);
+        byChunk.computeIfAbsent(chunk, k -> new ReferenceOpenHashSet<>()).add(entity);
+        bucketOf.put(entity, chunk);
+    }
+
+    private void unfile(ItemEntity entity) {
+        if (!bucketOf.containsKey(entity)) return;
+
+        long chunk = bucketOf.removeLong(entity);
+        ReferenceOpenHashSet<ItemEntity> items = byChunk.get(chunk);
+        if (items != null && items.remove(entity) && items.isEmpty()) {
+            byChunk.remove(chunk);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package net.reminitous.mineciv.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongPredicate;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import javax.annotation.Nullable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Per-level index of log positions, bucketed by chunk.
+ * <p>
+ * A chunk is indexed on first lookup with one pass over its sections; sections whose palette
+ * holds no log state are skipped without reading a single block. After that the index follows
+ * block changes, so picking the next tree is a set lookup instead of a chunk scan.
+ */
+public class LogIndex {
+    private static final Map<Level, LogIndex> INDEXES = new IdentityHashMap<>();
+
+    // chunk key -> BlockPos#asLong of every log in the chunk
+    private final Long2ObjectOpenHashMap<LongLinkedOpenHashSet> byChunk = new Long2ObjectOpenHashMap<>();
+
+    @Nullable
+    private static LogIndex of(LevelAccessor level, boolean create) {
+        if (!(level instanceof ServerLevel serverLevel)) return null;
+        return create ? INDEXES.computeIfAbsent(serverLevel, l -> new LogIndex()) : INDEXES.get(serverLevel);
+    }
+
+    private static boolean isLog(BlockState state) {
+        return state.is(BlockTags.LOGS);
+    }
+
+    // --------------------
+    // Updates
+    // --------------------
+    public static void onBlockChanged(LevelAccessor level, BlockPos pos, BlockState newState) {
+        LogIndex index = of(level, false);
+        if (index == null) return;
+
+        LongLinkedOpenHashSet logs = index.byChunk.get(ChunkPos.asLong(pos));
+        if (logs == null) return; // chunk not indexed yet; it will be read fresh
+
+        if (isLog(newState)) {
+            logs.add(pos.asLong());
+        } else {
+            logs.remove(pos.asLong());
+        }
+    }
+
+    public static void onChunkUnload(LevelAccessor level, ChunkPos chunkPos) {
+        LogIndex index = of(level, false);
+        if (index == null) return;
+
+        index.byChunk.remove(chunkPos.toLong());
+    }
+
+    public static void onLevelUnload(Level level) {
+        INDEXES.remove(level);
+    }
+
+    // --------------------
+    // Queries
+    // --------------------
+
+    /**
+     * Any log in the chunk with minY <= y <= maxY, skipping positions {@code exclude} rejects.
+     * Stale entries (the block is no longer a log) are dropped on the way.
+     */
+    @Nullable
+    public static BlockPos findAnyLog(Level level, int chunkX, int chunkZ, int minY, int maxY, @Nullable LongPredicate exclude) {
+        LogIndex index = of(level, true);
+        if (index == null) return null;
+
+        LongLinkedOpenHashSet logs = index.logsIn(level, chunkX, chunkZ);
+        if (logs == null) return null;
+
+        LongIterator it = logs.iterator();
+        while (it.hasNext()) {
+            long packed = it.nextLong();
+            int y = BlockPos.getY(packed);
+            if (y < minY || y > maxY) continue;
+            if (exclude != null && exclude.test(packed)) continue;
+
+            BlockPos pos = BlockPos.of(packed);
+            if (!isLog(level.getBlockState(pos))) {
+                it.remove();
+                continue;
+            }
+            return pos;
+        }
+        return null;
+    }
+
+    @Nullable
+    private LongLinkedOpenHashSet logsIn(Level level, int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        LongLinkedOpenHashSet cached = byChunk.get(key);
+        if (cached != null) return cached;
+
+        // Never load chunks for an index lookup
+        LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+        if (chunk == null) return null;
+
+        LongLinkedOpenHashSet logs = new LongLinkedOpenHashSet();
+        int baseX = chunkX << 4;
+        int baseZ = chunkZ << 4;
+        BoundingBox column = new BoundingBox(baseX, level.getMinBuildHeight(), baseZ,
+                baseX + 15, level.getMaxBuildHeight() - 1, baseZ + 15);
+
+        SectionScanner.scan(level, column, LogIndex::isLog, (pos, state) -> {
+            logs.add(pos.asLong());
+            return true;
+        });
+
+        byChunk.put(key, logs);
+        return logs;
+    }
+}
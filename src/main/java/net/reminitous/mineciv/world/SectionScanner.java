@@ -0,0 +1,80 @@
+package net.reminitous.mineciv.world;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import java.util.function.Predicate;
+
+/**
+ * Block searches that walk chunk sections directly instead of calling Level#getBlockState per position.
+ * <p>
+ * Each 16³ section is first asked whether its palette can contain a matching state at all
+ * ({@link LevelChunkSection#maybeHas}); sections that can't are skipped whole. Matching sections are read
+ * with a single mutable cursor. Chunks that aren't loaded are skipped rather than loaded.
+ */
+public final class SectionScanner {
+
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Called for every matching block. {@code pos} is reused between calls: copy it with
+         * {@link BlockPos#immutable()} to keep it.
+         *
+         * @return false to stop the scan
+         */
+        boolean visit(BlockPos.MutableBlockPos pos, BlockState state);
+    }
+
+    private SectionScanner() {
+    }
+
+    /**
+     * Visits every block inside {@code box} (inclusive) whose state passes {@code filter}.
+     *
+     * @return false if the visitor stopped the scan early
+     */
+    public static boolean scan(Level level, BoundingBox box, Predicate<BlockState> filter, Visitor visitor) {
+        BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+
+        int minSectionY = Math.max(SectionPos.blockToSectionCoord(box.minY()), level.getMinSection());
+        int maxSectionY = Math.min(SectionPos.blockToSectionCoord(box.maxY()), level.getMaxSection() - 1);
+
+        for (int cx = SectionPos.blockToSectionCoord(box.minX()); cx <= SectionPos.blockToSectionCoord(box.maxX()); cx++) {
+            for (int cz = SectionPos.blockToSectionCoord(box.minZ()); cz <= SectionPos.blockToSectionCoord(box.maxZ()); cz++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(cx, cz);
+                if (chunk == null) continue;
+
+                int minX = Math.max(box.minX(), cx << 4);
+                int maxX = Math.min(box.maxX(), (cx << 4) + 15);
+                int minZ = Math.max(box.minZ(), cz << 4);
+                int maxZ = Math.min(box.maxZ(), (cz << 4) + 15);
+
+                for (int sy = minSectionY; sy <= maxSectionY; sy++) {
+                    LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(sy));
+                    if (!section.maybeHas(filter)) continue;
+
+                    int minY = Math.max(box.minY(), sy << 4);
+                    int maxY = Math.min(box.maxY(), (sy << 4) + 15);
+
+                    for (int y = minY; y <= maxY; y++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            for (int x = minX; x <= maxX; x++) {
+                                BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+                                if (!filter.test(state)) continue;
+
+                                cursor.set(x, y, z);
+                                if (!visitor.visit(cursor, state)) return false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}